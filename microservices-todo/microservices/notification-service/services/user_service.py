@@ -16,3 +16,17 @@ def get_user(user_id):
     except Exception as e:
         print(f"Error retrieving user: {e}")
         return None
+
+def get_users(user_ids):
+    """
+    Get many users by ID from the user service in one request.
+    Returns a dict of user id -> user, or None for unknown ids.
+    """
+    try:
+        response = requests.post(f'{USER_SERVICE_URL}/api/users/batch', json={'ids': list(user_ids)})
+        if response.status_code == 200:
+            return {int(user_id): user for user_id, user in response.json()['users'].items()}
+        return {}
+    except Exception as e:
+        print(f"Error retrieving users: {e}")
+        return {}
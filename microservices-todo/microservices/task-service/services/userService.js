@@ -22,6 +22,21 @@ const checkUserExists = async (userId) => {
   }
 };
 
+// Checks many user ids with one request; resolves to { [userId]: true|false }
+const checkUsersExist = async (userIds) => {
+  try {
+    const response = await axios.post(
+      `${USER_SERVICE_URL}/api/users/batch?view=exists`,
+      { ids: userIds }
+    );
+    return response.data.exists;
+  } catch (error) {
+    console.error("Error checking users existence:", error.message);
+    return {};
+  }
+};
+
 module.exports = {
   checkUserExists,
+  checkUsersExist,
 };
@@ -0,0 +1,81 @@
+package com.fst.dmi.userservice.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.security.converter.RsaKeyConverters;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+
+/**
+ * Signing key for the access tokens issued by /api/users/auth. The key pair is read from PEM files
+ * when security.token.private-key-location and public-key-location are set; otherwise a key pair is
+ * generated at startup, so tokens do not survive a restart and cannot be shared between instances.
+ */
+@Configuration
+public class TokenConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenConfig.class);
+
+    @Bean
+    public RSAKey tokenSigningKey(ResourceLoader resourceLoader,
+                                  @Value("${security.token.private-key-location:}") String privateKeyLocation,
+                                  @Value("${security.token.public-key-location:}") String publicKeyLocation)
+            throws IOException, NoSuchAlgorithmException, JOSEException {
+        RSAPublicKey publicKey;
+        RSAPrivateKey privateKey;
+        if (privateKeyLocation.isEmpty() || publicKeyLocation.isEmpty()) {
+            log.warn("No token signing key configured; generating a temporary one");
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            publicKey = (RSAPublicKey) keyPair.getPublic();
+            privateKey = (RSAPrivateKey) keyPair.getPrivate();
+        } else {
+            try (InputStream in = resourceLoader.getResource(privateKeyLocation).getInputStream()) {
+                privateKey = RsaKeyConverters.pkcs8().convert(in);
+            }
+            try (InputStream in = resourceLoader.getResource(publicKeyLocation).getInputStream()) {
+                publicKey = RsaKeyConverters.x509().convert(in);
+            }
+        }
+        RSAKey key = new RSAKey.Builder(publicKey)
+                .privateKey(privateKey)
+                .keyUse(KeyUse.SIGNATURE)
+                .build();
+        // Key id derived from the public key, so verifiers can tell rotated keys apart
+        return new RSAKey.Builder(key).keyID(key.computeThumbprint().toString()).build();
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(RSAKey tokenSigningKey) {
+        return new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(tokenSigningKey)));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(RSAKey tokenSigningKey,
+                                 @Value("${security.token.issuer}") String issuer) throws JOSEException {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withPublicKey(tokenSigningKey.toRSAPublicKey()).build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        return decoder;
+    }
+}
@@ -0,0 +1,59 @@
+package com.fst.dmi.userservice.config;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Support for Spring Boot's virtual-thread mode (spring.threads.virtual.enabled=true on a Java 21
+ * runtime), in which Tomcat, {@code @Async} and {@code @Scheduled} work run on virtual threads.
+ *
+ * <p>Request concurrency is then no longer capped by Tomcat's thread pool, so the DataSource gets an
+ * admission limit: H2 runs statements inside synchronized blocks, which pin a virtual thread to its
+ * carrier, and an unbounded number of them waiting on the pool would only queue up there.
+ */
+@Configuration
+public class VirtualThreadsConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public static BeanPostProcessor connectionAdmissionPostProcessor(
+            @Value("${datasource.admission.max-concurrent:0}") int maxConcurrent,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${datasource.admission.max-waiting:1000}") int maxWaiting,
+            @Value("${datasource.admission.timeout-ms:5000}") long timeoutMillis) {
+        // By default no more callers than the pool has connections, so waiting happens here
+        // (parked, carrier released) rather than inside the pool
+        int permits = maxConcurrent > 0 ? maxConcurrent : poolSize;
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionAdmissionDataSource)) {
+                    return new ConnectionAdmissionDataSource(dataSource, permits, maxWaiting, timeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    @ConditionalOnJava(range = ConditionalOnJava.Range.OLDER_THAN, value = JavaVersion.TWENTY_ONE)
+    static class Unsupported {
+
+        Unsupported() {
+            LoggerFactory.getLogger(VirtualThreadsConfig.class)
+                    .warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                            Runtime.version().feature());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.fst.dmi.userservice.controller;
+
+import java.util.List;
+
+/**
+ * Body of POST /api/users/batch.
+ */
+public class UserBatchRequest {
+
+    private List<Long> ids;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -1,12 +1,32 @@
 package com.fst.dmi.userservice.controller;
 
 import com.fst.dmi.userservice.model.User;
+import com.fst.dmi.userservice.repository.UserProfile;
+import com.fst.dmi.userservice.service.TokenService;
+import com.fst.dmi.userservice.service.UserExportService;
 import com.fst.dmi.userservice.service.UserService;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,10 +37,20 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final TokenService tokenService;
+    private final RSAKey tokenSigningKey;
+    private final Duration userCacheMaxAge;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserExportService userExportService,
+                          TokenService tokenService, RSAKey tokenSigningKey,
+                          @Value("${users.cache.max-age:60s}") Duration userCacheMaxAge) {
         this.userService = userService;
+        this.userExportService = userExportService;
+        this.tokenService = tokenService;
+        this.tokenSigningKey = tokenSigningKey;
+        this.userCacheMaxAge = userCacheMaxAge;
     }
 
     // TODO-MS5: Implémentez l'endpoint POST /api/users pour créer un utilisateur
@@ -36,16 +66,52 @@ public class UserController {
         }
     }
 
+    /**
+     * Returns the user with an ETag and Last-Modified, so callers can revalidate with If-None-Match
+     * or If-Modified-Since and get an empty 304 when nothing changed.
+     */
     @GetMapping("/{id}")
     public ResponseEntity<?> getUserById(@PathVariable Long id) {
-        Optional<User> user = userService.findUserById(id);
+        Optional<UserProfile> user = userService.findUserProfileById(id);
         if (user.isPresent()) {
-            return new ResponseEntity<>(user.get(), HttpStatus.OK);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(userCacheMaxAge).cachePrivate().mustRevalidate())
+                    .eTag(etag(user.get()))
+                    // Users are never modified after registration
+                    .lastModified(user.get().getCreatedAt().atZone(ZoneId.systemDefault()))
+                    .body(user.get());
         } else {
             return new ResponseEntity<>(Map.of("error", "User not found"), HttpStatus.NOT_FOUND);
         }
     }
 
+    private static String etag(UserProfile user) {
+        String content = user.getId() + "|" + user.getUsername() + "|" + user.getEmail() + "|" + user.getCreatedAt();
+        return "\"" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Resolves up to users.batch.max-size ids in one round trip: {"ids": [1, 2, 3]} returns
+     * {"users": {"1": {...}, "2": null, ...}}, or {"exists": {"1": true, "2": false, ...}} with
+     * view=exists.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getUsersByIds(@RequestBody UserBatchRequest request,
+                                           @RequestParam(defaultValue = "summary") String view) {
+        List<Long> ids = request.getIds();
+        if (ids == null) {
+            return new ResponseEntity<>(Map.of("error", "ids required"), HttpStatus.BAD_REQUEST);
+        }
+        try {
+            if ("exists".equals(view)) {
+                return new ResponseEntity<>(Map.of("exists", userService.findExistingUsers(ids)), HttpStatus.OK);
+            }
+            return new ResponseEntity<>(Map.of("users", userService.findUserSummaries(ids)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // TODO-MS6: Implémentez l'endpoint POST /api/users/auth pour authentifier un utilisateur
     // Cet endpoint doit recevoir un username et password dans le corps de la requête
     // Il doit appeler userService.authenticateUser et retourner l'utilisateur ou une erreur
@@ -56,24 +122,87 @@ public class UserController {
         if (username == null || password == null) {
             return new ResponseEntity<>(Map.of("error", "Username and password required"), HttpStatus.BAD_REQUEST);
         }
-        boolean authenticated = userService.authenticateUser(username, password);
-        if (authenticated) {
-        User user = userService.findUserByUsername(username);
-            return new ResponseEntity<>(user, HttpStatus.OK);
+        Optional<User> user = userService.authenticate(username, password);
+        if (user.isPresent()) {
+            Jwt token = tokenService.issue(user.get());
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("id", user.get().getId());
+            body.put("username", user.get().getUsername());
+            body.put("email", user.get().getEmail());
+            body.put("createdAt", user.get().getCreatedAt());
+            body.put("accessToken", token.getTokenValue());
+            body.put("tokenType", "Bearer");
+            body.put("expiresAt", token.getExpiresAt());
+            return new ResponseEntity<>(body, HttpStatus.OK);
         } else {
             return new ResponseEntity<>(Map.of("error", "Authentication failed"), HttpStatus.UNAUTHORIZED);
         }
     }
 
+    // Public key set the other services verify access tokens against
+    @GetMapping("/auth/jwks")
+    public ResponseEntity<Map<String, Object>> getTokenKeys() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(new JWKSet(tokenSigningKey).toJSONObject());
+    }
+
+    // Identity carried by the bearer token; answered without touching the database
+    @GetMapping("/me")
+    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal Jwt token) {
+        return new ResponseEntity<>(Map.of(
+                "id", Long.valueOf(token.getSubject()),
+                "username", token.getClaimAsString(TokenService.USERNAME_CLAIM),
+                "email", token.getClaimAsString(TokenService.EMAIL_CLAIM)), HttpStatus.OK);
+    }
+
+    /**
+     * Lists users by id, one page at a time: page=N for offset pages, or after=&lt;last id&gt; for keyset
+     * pages, which stay cheap however deep they go. The next page, if any, is in the Link header.
+     */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return new ResponseEntity<>(users, HttpStatus.OK);
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) Integer page,
+                                         @RequestParam(required = false) Long after,
+                                         @RequestParam(defaultValue = "100") int size) {
+        if (page != null && after != null) {
+            return new ResponseEntity<>(Map.of("error", "Use either page or after"), HttpStatus.BAD_REQUEST);
+        }
+        if (page != null && page < 0) {
+            return new ResponseEntity<>(Map.of("error", "page must not be negative"), HttpStatus.BAD_REQUEST);
+        }
+        UriComponentsBuilder next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("size", userService.capPageSize(size));
+        List<UserProfile> users;
+        if (page != null) {
+            Slice<UserProfile> slice = userService.getUsersPage(page, size);
+            users = slice.getContent();
+            next = slice.hasNext() ? next.replaceQueryParam("page", page + 1) : null;
+        } else {
+            users = userService.getUsersAfter(after == null ? 0 : after, size);
+            next = users.size() == userService.capPageSize(size)
+                    ? next.replaceQueryParam("after", users.get(users.size() - 1).getId()) : null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (next != null) {
+            response.header(HttpHeaders.LINK, "<" + next.toUriString() + ">; rel=\"next\"");
+        }
+        return response.body(users);
+    }
+
+    // Export of all users as NDJSON, streamed with constant memory. There are no roles in this service:
+    // any authenticated token may export, and the export holds no field the public user list omits
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(userExportService::exportNdjson);
     }
 
     @GetMapping("/check/{username}")
     public ResponseEntity<?> checkUsername(@PathVariable String username) {
-        User user = userService.findUserByUsername(username);
-        return new ResponseEntity<>(Map.of("exists", user != null), HttpStatus.OK);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(Map.of("exists", userService.usernameExists(username)));
     }
 }
@@ -0,0 +1,11 @@
+package com.fst.dmi.userservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * What the read endpoints return for a user: the summary plus its creation time.
+ */
+public interface UserProfile extends UserSummary {
+
+    LocalDateTime getCreatedAt();
+}
@@ -1,9 +1,21 @@
 package com.fst.dmi.userservice.repository;
 
 import com.fst.dmi.userservice.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
@@ -16,5 +28,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-    
+
+    // Read endpoints select only the columns they return
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.createdAt AS createdAt FROM User u WHERE u.id = ?1")
+    Optional<UserProfile> findProfileById(Long id);
+
+    // Listing: offset pages as a Slice (no count query), keyset pages by id, and a cursor for exports
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.createdAt AS createdAt FROM User u")
+    Slice<UserProfile> findProfiles(Pageable pageable);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.createdAt AS createdAt FROM User u " +
+           "WHERE u.id > ?1 ORDER BY u.id")
+    List<UserProfile> findProfilesAfter(Long afterId, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.createdAt AS createdAt FROM User u ORDER BY u.id")
+    Stream<UserProfile> streamProfiles();
+
+    // Batch lookups: one IN query for the whole batch instead of one request and query per id
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User u WHERE u.id IN ?1")
+    List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN ?1")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package com.fst.dmi.userservice.repository;
+
+/**
+ * Public fields of a user, selected without loading the entity (and its password hash).
+ */
+public interface UserSummary {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+}
@@ -0,0 +1,55 @@
+package com.fst.dmi.userservice.service;
+
+import com.fst.dmi.userservice.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Issues short-lived RS256 access tokens. The subject is the user id, so other services can
+ * identify the caller from the token alone after checking it against the published key set.
+ */
+@Service
+public class TokenService {
+
+    public static final String USERNAME_CLAIM = "username";
+    public static final String EMAIL_CLAIM = "email";
+
+    private final JwtEncoder jwtEncoder;
+    private final String issuer;
+    private final Duration ttl;
+
+    @Autowired
+    public TokenService(JwtEncoder jwtEncoder,
+                        @Value("${security.token.issuer}") String issuer,
+                        @Value("${security.token.ttl:15m}") Duration ttl) {
+        this.jwtEncoder = jwtEncoder;
+        this.issuer = issuer;
+        this.ttl = ttl;
+    }
+
+    public Jwt issue(User user) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .id(UUID.randomUUID().toString())
+                .issuer(issuer)
+                .subject(String.valueOf(user.getId()))
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim(USERNAME_CLAIM, user.getUsername())
+                .claim(EMAIL_CLAIM, user.getEmail())
+                .build();
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims));
+    }
+}
@@ -0,0 +1,67 @@
+package com.fst.dmi.userservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fst.dmi.userservice.repository.UserProfile;
+import com.fst.dmi.userservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every user as NDJSON straight from a database cursor. Rows are projections rather than
+ * managed entities, so memory use stays constant however many users there are.
+ */
+@Service
+public class UserExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public UserExportService(UserRepository userRepository,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportNdjson(OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<UserProfile> users = userRepository.streamProfiles()) {
+                JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+                json.setRootValueSeparator(null);
+                int written = 0;
+                for (Iterator<UserProfile> it = users.iterator(); it.hasNext(); ) {
+                    UserProfile user = it.next();
+                    json.writeStartObject();
+                    json.writeNumberField("id", user.getId());
+                    json.writeStringField("username", user.getUsername());
+                    json.writeStringField("email", user.getEmail());
+                    json.writeStringField("createdAt", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(user.getCreatedAt()));
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                    if (++written % FLUSH_EVERY == 1) {
+                        json.flush();
+                    }
+                }
+                json.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
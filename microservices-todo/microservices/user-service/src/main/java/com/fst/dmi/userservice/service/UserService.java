@@ -1,24 +1,42 @@
 package com.fst.dmi.userservice.service;
 
 import com.fst.dmi.userservice.model.User;
+import com.fst.dmi.userservice.repository.UserProfile;
 import com.fst.dmi.userservice.repository.UserRepository;
+import com.fst.dmi.userservice.repository.UserSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final int maxBatchSize;
+    private final int maxPageSize;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       @Value("${users.batch.max-size:1000}") int maxBatchSize,
+                       @Value("${users.page.max-size:1000}") int maxPageSize) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPageSize = maxPageSize;
     }
 
     // TODO-MS3: Implémentez la méthode createUser pour créer un nouvel utilisateur
@@ -42,23 +60,76 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    public Optional<UserProfile> findUserProfileById(Long id) {
+        return userRepository.findProfileById(id);
+    }
+
     public User findUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
 
+    public boolean usernameExists(String username) {
+        return userRepository.existsByUsername(username);
+    }
+
     // TODO-MS4: Implémentez la méthode authenticateUser pour authentifier un utilisateur
     // Cette méthode doit vérifier si l'utilisateur existe puis si le mot de passe correspond
     // Elle doit utiliser passwordEncoder.matches pour comparer les mots de passe
     public boolean authenticateUser(String username, String password) {
+        return authenticate(username, password).isPresent();
+    }
+
+    // Returns the user the credentials belong to, so callers do not have to load it a second time
+    public Optional<User> authenticate(String username, String password) {
         User user = userRepository.findByUsername(username);
-        if (user == null) {
-            return false;
+        if (user == null || !passwordEncoder.matches(password, user.getPassword())) {
+            return Optional.empty();
         }
-        
-        return passwordEncoder.matches(password, user.getPassword());
+        return Optional.of(user);
+    }
+
+    /**
+     * Resolves a batch of user ids with a single query. Every requested id is a key of the result,
+     * mapped to null when no such user exists.
+     */
+    public Map<Long, UserSummary> findUserSummaries(Collection<Long> ids) {
+        Set<Long> distinctIds = checkBatch(ids);
+        Map<Long, UserSummary> result = new LinkedHashMap<>();
+        distinctIds.forEach(id -> result.put(id, null));
+        for (UserSummary summary : userRepository.findSummariesByIdIn(distinctIds)) {
+            result.put(summary.getId(), summary);
+        }
+        return result;
+    }
+
+    public Map<Long, Boolean> findExistingUsers(Collection<Long> ids) {
+        Set<Long> distinctIds = checkBatch(ids);
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        distinctIds.forEach(id -> result.put(id, false));
+        userRepository.findExistingIds(distinctIds).forEach(id -> result.put(id, true));
+        return result;
+    }
+
+    private Set<Long> checkBatch(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Cannot look up more than " + maxBatchSize + " users at once");
+        }
+        return distinctIds;
+    }
+
+    // Pages are ordered by id; sizes above users.page.max-size are capped
+
+    public Slice<UserProfile> getUsersPage(int page, int size) {
+        return userRepository.findProfiles(PageRequest.of(page, capPageSize(size), Sort.by("id")));
+    }
+
+    public List<UserProfile> getUsersAfter(long afterId, int size) {
+        return userRepository.findProfilesAfter(afterId, Limit.of(capPageSize(size)));
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public int capPageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
     }
 }
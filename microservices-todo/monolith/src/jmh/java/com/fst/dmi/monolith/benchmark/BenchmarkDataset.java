@@ -0,0 +1,119 @@
+package com.fst.dmi.monolith.benchmark;
+
+import com.fst.dmi.monolith.MonolithApplication;
+import com.fst.dmi.monolith.model.User;
+import com.fst.dmi.monolith.repository.UserRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the application (without the web server) against a fresh in-memory H2 database, applies the
+ * Flyway migrations and seeds users x tasks x notifications with batched JDBC inserts.
+ *
+ * <p>Due dates are spread over the 30 days around now, so roughly a tenth of the tasks fall in the
+ * 3-day due-soon window; one in three tasks is completed and one in two notifications is read.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"100"})
+    public int users;
+
+    @Param({"100", "1000"})
+    public int tasksPerUser;
+
+    @Param({"2"})
+    public int notificationsPerTask;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Passed as arguments so they override application.properties
+        context = new SpringApplicationBuilder(MonolithApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.h2.console.enabled=false",
+                        // The rows are seeded behind the search index's back; it must index them on first use
+                        "--tasks.search.preload=false",
+                        "--logging.level.root=WARN");
+        userRepository = context.getBean(UserRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int u = 1; u <= users; u++) {
+            rows.add(new Object[] {"user" + u, "user" + u + "@bench.local", "{noop}password", createdAt});
+        }
+        jdbc.batchUpdate("INSERT INTO users (username, email, password, created_at) VALUES (?, ?, ?, ?)", rows);
+
+        // Task ids are assigned here so notifications can refer to them; the sequence then skips past them
+        rows.clear();
+        long taskId = 0;
+        for (long userId = 1; userId <= users; userId++) {
+            for (int t = 0; t < tasksPerUser; t++) {
+                LocalDateTime dueDate = now.plusHours((t * 7L) % (30 * 24) - 15 * 24);
+                rows.add(new Object[] {++taskId, "Task " + t, "Benchmark task", Timestamp.valueOf(dueDate), t % 3 == 0, createdAt, userId});
+                if (rows.size() == BATCH_SIZE) {
+                    jdbc.batchUpdate("INSERT INTO tasks (id, title, description, due_date, completed, created_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO tasks (id, title, description, due_date, completed, created_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbc.execute("ALTER SEQUENCE task_seq RESTART WITH " + (taskId + 51));
+
+        rows.clear();
+        long taskCount = taskId;
+        for (long id = 1; id <= taskCount; id++) {
+            for (int n = 0; n < notificationsPerTask; n++) {
+                rows.add(new Object[] {"Notification " + n, createdAt, n % 2 == 0, id});
+                if (rows.size() == BATCH_SIZE) {
+                    jdbc.batchUpdate("INSERT INTO notifications (message, created_at, read, task_id) VALUES (?, ?, ?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO notifications (message, created_at, read, task_id) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Returns an uninitialized reference to a random seeded user; using it as a query parameter or
+     * association does not load the row.
+     */
+    public User randomUser() {
+        return userRepository.getReferenceById(ThreadLocalRandom.current().nextLong(1, users + 1));
+    }
+}
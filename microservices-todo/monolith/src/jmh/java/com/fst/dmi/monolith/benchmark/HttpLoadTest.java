@@ -0,0 +1,252 @@
+package com.fst.dmi.monolith.benchmark;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load test against a running application: {@code concurrency} clients each send
+ * their next request as soon as the previous one completes, for {@code duration} seconds after a
+ * warmup. Prints throughput and latency percentiles, so two runs (e.g. with and without
+ * spring.threads.virtual.enabled) can be compared directly.
+ *
+ * <p>Scenarios: {@code tasks} registers and logs in one user per client, then loads the task list;
+ * {@code login} does a full form login (BCrypt) per request; {@code get} and {@code post} send a plain
+ * request to {@code path}, e.g. the user-service's /api/users/auth with a JSON {@code body}.
+ *
+ * <p>Run with {@code ./gradlew loadTest -PloadTestArgs="--scenario=tasks --concurrency=200"}.
+ */
+public class HttpLoadTest {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    private final String baseUrl;
+    private final String scenario;
+    private final String path;
+    private final String body;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong errors = new AtomicLong();
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    HttpLoadTest(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        this.scenario = options.getOrDefault("scenario", "tasks");
+        this.path = options.getOrDefault("path", "/");
+        this.body = options.getOrDefault("body", "");
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "100"));
+        this.warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+        this.duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new HttpLoadTest(options).run();
+    }
+
+    private String loginUsername() {
+        return "load-" + runId + "-login";
+    }
+
+    void run() throws IOException, InterruptedException {
+        if (scenario.equals("login")) {
+            new Client(-1).register(loginUsername());
+        }
+        List<long[]> latencies = new ArrayList<>();
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            // Sessions are set up one at a time so that the setup's password hashing is not part of the load
+            Client client = new Client(i);
+            client.setUp();
+            Thread thread = new Thread(() -> client.run(latencies), "load-client-" + i);
+            clients.add(thread);
+        }
+        clients.forEach(Thread::start);
+        Thread.sleep(warmup.toMillis());
+        errors.set(0);
+        measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        measuring = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        stopped = true;
+        for (Thread thread : clients) {
+            thread.join();
+        }
+        report(merge(latencies), seconds);
+    }
+
+    private void report(long[] nanos, double seconds) {
+        Arrays.sort(nanos);
+        System.out.printf("scenario=%s concurrency=%d duration=%.1fs%n", scenario, concurrency, seconds);
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n", nanos.length, errors.get(), nanos.length / seconds);
+        System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                percentile(nanos, 50), percentile(nanos, 90), percentile(nanos, 99), percentile(nanos, 100));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static long[] merge(List<long[]> parts) {
+        long[] all = new long[parts.stream().mapToInt(part -> part.length).sum()];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        return all;
+    }
+
+    private class Client {
+
+        private final int index;
+        private final CookieManager cookies = new CookieManager();
+        private final HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(cookies)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        private long[] samples = new long[1024];
+        private int count;
+
+        Client(int index) {
+            this.index = index;
+        }
+
+        void setUp() throws IOException, InterruptedException {
+            if (scenario.equals("tasks")) {
+                register("load-" + runId + "-" + index);
+                if (!login("load-" + runId + "-" + index)) {
+                    throw new IOException("Client " + index + " could not log in");
+                }
+            }
+        }
+
+        void run(List<long[]> results) {
+            while (!stopped) {
+                long start = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = execute();
+                } catch (IOException e) {
+                    ok = false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (measuring) {
+                    if (ok) {
+                        record(System.nanoTime() - start);
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+            }
+            synchronized (results) {
+                results.add(Arrays.copyOf(samples, count));
+            }
+        }
+
+        private boolean execute() throws IOException, InterruptedException {
+            switch (scenario) {
+                case "tasks":
+                    return get("/tasks").statusCode() == 200;
+                case "login":
+                    // A fresh session each time, so every request pays for a password check
+                    cookies.getCookieStore().removeAll();
+                    return login(loginUsername());
+                case "get":
+                    return get(path).statusCode() / 100 == 2;
+                case "post":
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                    return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+                default:
+                    throw new IllegalArgumentException("Unknown scenario " + scenario);
+            }
+        }
+
+        private boolean login(String username) throws IOException, InterruptedException {
+            HttpResponse<String> response = post("/login", form("_csrf", csrf("/login"),
+                    "username", username, "password", "password"));
+            String location = response.headers().firstValue("Location").orElse("");
+            return response.statusCode() == 302 && !location.contains("error");
+        }
+
+        void register(String username) throws IOException, InterruptedException {
+            post("/register", form("_csrf", csrf("/register"), "username", username,
+                    "email", username + "@load.local", "password", "password"));
+        }
+
+        private String csrf(String page) throws IOException, InterruptedException {
+            Matcher matcher = CSRF.matcher(get(page).body());
+            if (!matcher.find()) {
+                throw new IOException("No CSRF token on " + page);
+            }
+            return matcher.group(1);
+        }
+
+        private HttpResponse<String> get(String page) throws IOException, InterruptedException {
+            return http.send(HttpRequest.newBuilder(URI.create(baseUrl + page)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+        }
+
+        private HttpResponse<String> post(String page, String form) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + page))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form))
+                    .build();
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        private void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+    }
+
+    private static String form(String... pairs) {
+        StringBuilder form = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (form.length() > 0) {
+                form.append('&');
+            }
+            form.append(pairs[i]).append('=').append(URLEncoder.encode(pairs[i + 1], StandardCharsets.UTF_8));
+        }
+        return form.toString();
+    }
+}
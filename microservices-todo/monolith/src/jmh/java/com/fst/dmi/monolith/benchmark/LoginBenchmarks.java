@@ -0,0 +1,84 @@
+package com.fst.dmi.monolith.benchmark;
+
+import com.fst.dmi.monolith.MonolithApplication;
+import com.fst.dmi.monolith.config.CostAwareBCryptPasswordEncoder;
+import com.fst.dmi.monolith.model.User;
+import com.fst.dmi.monolith.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.Authentication;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins per second on a single thread, i.e. per core, for a range of BCrypt costs. {@code login}
+ * goes through the application's AuthenticationManager (user cache, bounded hashing pool);
+ * {@code bcryptMatches} is the bare hash check, so the difference is the login path's own overhead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class LoginBenchmarks {
+
+    private static final String USERNAME = "bench-login";
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @State(Scope.Benchmark)
+    public static class LoginState {
+
+        @Param({"8", "10", "12"})
+        public int bcryptStrength;
+
+        private ConfigurableApplicationContext context;
+        private AuthenticationManager authenticationManager;
+        private CostAwareBCryptPasswordEncoder encoder;
+        private String hash;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            context = new SpringApplicationBuilder(MonolithApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                            "--security.password.bcrypt-strength=" + bcryptStrength,
+                            "--spring.jpa.show-sql=false",
+                            "--spring.h2.console.enabled=false",
+                            "--logging.level.root=WARN");
+            context.getBean(UserService.class).createUser(new User(USERNAME, USERNAME + "@bench.local", PASSWORD));
+            authenticationManager = context.getBean(AuthenticationConfiguration.class).getAuthenticationManager();
+            encoder = new CostAwareBCryptPasswordEncoder(bcryptStrength);
+            hash = encoder.encode(PASSWORD);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Authentication login(LoginState state) {
+        return state.authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD));
+    }
+
+    @Benchmark
+    public boolean bcryptMatches(LoginState state) {
+        return state.encoder.matches(PASSWORD, state.hash);
+    }
+}
@@ -0,0 +1,32 @@
+package com.fst.dmi.monolith.benchmark;
+
+import com.fst.dmi.monolith.repository.NotificationRepository;
+import com.fst.dmi.monolith.service.NotificationService;
+import com.fst.dmi.monolith.service.SweepResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+public class NotificationBenchmarks {
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long countUnreadByUser(BenchmarkDataset dataset) {
+        return dataset.bean(NotificationRepository.class).countUnreadByUser(dataset.randomUser());
+    }
+
+    /**
+     * The first invocation inserts the missing notifications; later ones measure the steady-state
+     * scan where every open task already has an unread notification.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SweepResult checkTasksDueSoon(BenchmarkDataset dataset) {
+        return dataset.bean(NotificationService.class).sweepTasksDueSoon();
+    }
+}
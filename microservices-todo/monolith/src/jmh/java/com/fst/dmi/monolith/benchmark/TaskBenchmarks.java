@@ -0,0 +1,52 @@
+package com.fst.dmi.monolith.benchmark;
+
+import com.fst.dmi.monolith.model.Task;
+import com.fst.dmi.monolith.repository.TaskRepository;
+import com.fst.dmi.monolith.service.TaskPage;
+import com.fst.dmi.monolith.service.TaskSearchResult;
+import com.fst.dmi.monolith.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskBenchmarks {
+
+    /**
+     * Each invocation inserts a task and its outbox event; the due-soon notification and the search
+     * index update happen afterwards on the event pipeline thread. The dataset grows slightly over the run.
+     */
+    @Benchmark
+    public Task createTask(BenchmarkDataset dataset) {
+        Task task = new Task("Benchmark task", "Created by JMH", LocalDateTime.now().plusDays(2), dataset.randomUser());
+        return dataset.bean(TaskService.class).createTask(task);
+    }
+
+    @Benchmark
+    public List<Task> findByUserOrderByDueDateAsc(BenchmarkDataset dataset) {
+        return dataset.bean(TaskRepository.class).findByUserOrderByDueDateAsc(dataset.randomUser());
+    }
+
+    @Benchmark
+    public TaskPage findFirstPageByUser(BenchmarkDataset dataset) {
+        return dataset.bean(TaskService.class).findPageByUser(dataset.randomUser(), null, null, TaskPage.DEFAULT_SIZE);
+    }
+
+    // Every seeded task matches, so this ranks all of the user's tasks
+    @Benchmark
+    public TaskSearchResult searchAllTasks(BenchmarkDataset dataset) {
+        return dataset.bean(TaskService.class).searchTasks(dataset.randomUser().getId(), "benchmark", 0, TaskPage.DEFAULT_SIZE);
+    }
+
+    // "Task 42", "Task 420" ... "Task 429": a prefix matching a handful of tasks
+    @Benchmark
+    public TaskSearchResult searchByPrefix(BenchmarkDataset dataset) {
+        return dataset.bean(TaskService.class).searchTasks(dataset.randomUser().getId(), "task 42", 0, TaskPage.DEFAULT_SIZE);
+    }
+}
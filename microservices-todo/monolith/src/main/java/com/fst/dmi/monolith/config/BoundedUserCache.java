@@ -0,0 +1,74 @@
+package com.fst.dmi.monolith.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of loaded {@link UserPrincipal}s for the authentication provider, bounded in size and
+ * age. Entries are copied on the way in and out because authentication erases the password of the
+ * principal it returns.
+ */
+@Component
+public class BoundedUserCache implements UserCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    @Autowired
+    public BoundedUserCache(@Value("${security.user-cache.max-size:10000}") int maxSize,
+                            @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > BoundedUserCache.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized UserDetails getUserFromCache(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.cachedAt > ttlMillis) {
+            entries.remove(username);
+            return null;
+        }
+        return entry.principal.withPassword(entry.principal.getPassword());
+    }
+
+    @Override
+    public synchronized void putUserInCache(UserDetails user) {
+        if (user instanceof UserPrincipal principal && principal.getPassword() != null) {
+            entries.put(principal.getUsername(), new Entry(principal.withPassword(principal.getPassword())));
+        }
+    }
+
+    @Override
+    public synchronized void removeUserFromCache(String username) {
+        entries.remove(username);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final UserPrincipal principal;
+        private final long cachedAt = System.currentTimeMillis();
+
+        private Entry(UserPrincipal principal) {
+            this.principal = principal;
+        }
+    }
+}
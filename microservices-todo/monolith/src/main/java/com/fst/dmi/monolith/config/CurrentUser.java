@@ -0,0 +1,55 @@
+package com.fst.dmi.monolith.config;
+
+import com.fst.dmi.monolith.model.User;
+import com.fst.dmi.monolith.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Resolves the authenticated user for the current request. The id comes straight from the
+ * {@link UserPrincipal}; the full {@link User} entity is loaded at most once per request and only
+ * when a handler actually needs its columns.
+ */
+@Component
+@RequestScope
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+    private User user;
+
+    @Autowired
+    public CurrentUser(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public UserPrincipal getPrincipal() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return (UserPrincipal) auth.getPrincipal();
+    }
+
+    public Long getId() {
+        return getPrincipal().getId();
+    }
+
+    public String getUsername() {
+        return getPrincipal().getUsername();
+    }
+
+    /**
+     * Returns an uninitialized proxy for use in query parameters and associations; no SQL is issued.
+     */
+    public User getReference() {
+        return user != null ? user : userRepository.getReferenceById(getId());
+    }
+
+    public User getUser() {
+        if (user == null) {
+            user = userRepository.findById(getId())
+                    .orElseThrow(() -> new IllegalStateException("Authenticated user no longer exists: " + getUsername()));
+        }
+        return user;
+    }
+}
@@ -0,0 +1,107 @@
+package com.fst.dmi.monolith.config;
+
+import com.fst.dmi.monolith.service.DueDateScheduler;
+import com.fst.dmi.monolith.service.NotificationStreamBroker;
+import com.fst.dmi.monolith.service.TaskEventPipeline;
+import com.fst.dmi.monolith.service.TaskSearchIndex;
+import com.fst.dmi.monolith.service.UnreadCountCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Micrometer wiring. Actuator already binds HikariCP, Hibernate statistics, JVM and HTTP request
+ * metrics; this adds {@code @Timed} support for the services and gauges for in-memory state.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder notificationStateMetrics(NotificationStreamBroker streamBroker, UnreadCountCache unreadCountCache) {
+        return registry -> {
+            Gauge.builder("notifications.stream.connections", streamBroker, NotificationStreamBroker::getConnectionCount)
+                    .description("Open Server-Sent Events notification streams")
+                    .register(registry);
+            Gauge.builder("notifications.unread_cache.size", unreadCountCache, UnreadCountCache::size)
+                    .description("Users with a cached unread notification count")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder taskEventMetrics(TaskEventPipeline pipeline) {
+        return registry -> {
+            Gauge.builder("tasks.events.queue.size", pipeline, TaskEventPipeline::getQueueSize)
+                    .description("Committed task events waiting for the pipeline thread")
+                    .register(registry);
+            Gauge.builder("tasks.events.dead_letters", pipeline, TaskEventPipeline::getDeadLetterCount)
+                    .description("Outbox events that used up their delivery attempts")
+                    .register(registry);
+            FunctionCounter.builder("tasks.events.published", pipeline, TaskEventPipeline::getPublishedCount)
+                    .register(registry);
+            FunctionCounter.builder("tasks.events.processed", pipeline, TaskEventPipeline::getProcessedCount)
+                    .register(registry);
+            FunctionCounter.builder("tasks.events.overflowed", pipeline, TaskEventPipeline::getOverflowCount)
+                    .description("Events left to the outbox scan because the queue was full")
+                    .register(registry);
+            FunctionCounter.builder("tasks.events.failed", pipeline, TaskEventPipeline::getFailedCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder taskSearchMetrics(TaskSearchIndex searchIndex) {
+        return registry -> {
+            Gauge.builder("tasks.search.partitions", searchIndex, TaskSearchIndex::getPartitionCount)
+                    .description("Users whose tasks are loaded into the search index")
+                    .register(registry);
+            Gauge.builder("tasks.search.documents", searchIndex, TaskSearchIndex::getDocumentCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder dueDateTimerMetrics(ObjectProvider<DueDateScheduler> schedulerProvider) {
+        return registry -> schedulerProvider.ifAvailable(scheduler -> {
+            Gauge.builder("notifications.timer.tasks", scheduler, DueDateScheduler::getScheduledCount)
+                    .description("Tasks with pending due-date timers")
+                    .register(registry);
+            Gauge.builder("notifications.timer.queue.size", scheduler, DueDateScheduler::getTimerCount)
+                    .description("Queued timers, including ones made stale by edits")
+                    .register(registry);
+            FunctionCounter.builder("notifications.timer.fired", scheduler, DueDateScheduler::getFiredCount)
+                    .register(registry);
+            FunctionCounter.builder("notifications.timer.failed", scheduler, DueDateScheduler::getFailedCount)
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder loginMetrics(PasswordEncoder passwordEncoder, BoundedUserCache userCache) {
+        return registry -> {
+            if (passwordEncoder instanceof BoundedPasswordEncoder bounded) {
+                FunctionCounter.builder("security.password.rejected", bounded, BoundedPasswordEncoder::getRejectedCount)
+                        .description("Password checks rejected because the hashing pool was saturated")
+                        .register(registry);
+                Gauge.builder("security.password.active", bounded, BoundedPasswordEncoder::getActiveCount)
+                        .register(registry);
+                Gauge.builder("security.password.queued", bounded, BoundedPasswordEncoder::getQueueSize)
+                        .register(registry);
+            }
+            Gauge.builder("security.user_cache.size", userCache, BoundedUserCache::size)
+                    .description("Login details cached by the authentication provider")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.fst.dmi.monolith.config;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * Thrown when the password hashing pool is saturated. It is an internal service failure rather
+ * than bad credentials, so login answers 503 instead of redirecting back to the form.
+ */
+public class PasswordVerificationRejectedException extends InternalAuthenticationServiceException {
+
+    public PasswordVerificationRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,134 @@
+package com.fst.dmi.monolith.config;
+
+import com.fst.dmi.monolith.service.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Read replica support, enabled by setting datasource.replica.url: {@code @Transactional(readOnly = true)}
+ * work runs on a separate replica pool, everything else on the primary (spring.datasource.*). See
+ * {@link ReadWriteRoutingDataSource} for when reads fall back to the primary.
+ *
+ * <p>The replica pool is configured with datasource.replica.hikari.*; its credentials default to the
+ * primary's. For local testing a second pool on the primary's own H2 URL, or an H2 TCP server on the
+ * same database files, stands in for a replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class ReadWriteRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties,
+                                                 Environment environment,
+                                                 @Value("${datasource.replica.url}") String replicaUrl,
+                                                 @Value("${datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+                                                 @Value("${datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+                                                 @Value("${datasource.replica.max-lag:2s}") Duration maxLag,
+                                                 ReadYourWrites readYourWrites) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setReadOnly(true);
+        binder.bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+        // Start without the replica rather than fail when it is not up yet; reads use the primary meanwhile
+        replica.setInitializationFailTimeout(-1);
+
+        return new ReadWriteRoutingDataSource(primary, replica, maxLag, readYourWrites);
+    }
+
+    // Spring holds a Hibernate session's connection until the session closes, which with
+    // open-in-view would pin a request to the pool of its first transaction
+    @Bean
+    public HibernatePropertiesCustomizer perTransactionConnectionRelease() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    // The dataSource bean may be wrapped, e.g. by the connection admission limit in virtual-thread mode
+    private static ReadWriteRoutingDataSource routing(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException("DataSource does not route reads", e);
+        }
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(DataSource dataSource) {
+        return new ReplicaLagMonitor(routing(dataSource));
+    }
+
+    @Bean
+    public MeterBinder readWriteRoutingMetrics(DataSource routingDataSource) {
+        return registry -> {
+            ReadWriteRoutingDataSource dataSource = routing(routingDataSource);
+            bindPool(dataSource.getPrimary(), registry);
+            bindPool(dataSource.getReplica(), registry);
+            Gauge.builder("datasource.replica.lag", dataSource, ReadWriteRoutingDataSource::getReplicaLagMillis)
+                    .description("Replication lag seen by the last heartbeat; -1 when the replica is unreachable")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("datasource.replica.available", dataSource, ds -> ds.isReplicaAvailable() ? 1 : 0)
+                    .register(registry);
+            readCounter(registry, dataSource, "replica", ReadWriteRoutingDataSource::getReplicaReadCount);
+            readCounter(registry, dataSource, "primary", ReadWriteRoutingDataSource::getPrimaryReadCount);
+        };
+    }
+
+    // Actuator may already have bound the primary pool, which it reaches through the routing DataSource
+    private static void bindPool(HikariDataSource pool, MeterRegistry registry) {
+        if (pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null) {
+            pool.setMetricRegistry(registry);
+        }
+    }
+
+    private static void readCounter(MeterRegistry registry, ReadWriteRoutingDataSource dataSource, String target,
+                                    ToDoubleFunction<ReadWriteRoutingDataSource> count) {
+        FunctionCounter.builder("datasource.routing.reads", dataSource, count)
+                .description("Connections handed to read-only transactions")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    public static class ReplicaLagMonitor {
+
+        private final ReadWriteRoutingDataSource dataSource;
+
+        ReplicaLagMonitor(ReadWriteRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${datasource.replica.heartbeat-ms:1000}")
+        public void heartbeat() {
+            dataSource.checkReplicaLag();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.fst.dmi.monolith.config;
+
+import com.fst.dmi.monolith.service.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends connections of read-only transactions to a replica pool and everything else to the primary.
+ *
+ * <p>The routing decision needs the transaction's read-only flag, which Spring only publishes after
+ * the transaction has begun, so connections are handed out lazily and bound to a pool on first use.
+ * Reads fall back to the primary while the replica lags more than {@code maxLag} behind (measured
+ * with a heartbeat row, see {@link #checkReplicaLag}) or cannot be reached, and for reads of data
+ * that changed within the last {@code maxLag}, as tracked by {@link ReadYourWrites}.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final long maxLagMillis;
+    private final ReadYourWrites readYourWrites;
+
+    private volatile boolean replicaAvailable;
+    private volatile long replicaLagMillis = -1;
+    private boolean checked;
+
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica, Duration maxLag,
+                                      ReadYourWrites readYourWrites) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLag.toMillis();
+        this.readYourWrites = readYourWrites;
+        Router router = new Router();
+        router.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+        afterPropertiesSet();
+    }
+
+    private Target route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        if (replicaAvailable && !readYourWrites.mustReadPrimary()) {
+            replicaReads.incrementAndGet();
+            return Target.REPLICA;
+        }
+        primaryReads.incrementAndGet();
+        return Target.PRIMARY;
+    }
+
+    /**
+     * Writes the current time to the heartbeat row on the primary and reads it back from the replica;
+     * the difference is the replication lag. Reads go to the replica only while it is within
+     * {@code maxLag}.
+     */
+    public void checkReplicaLag() {
+        readYourWrites.expire();
+
+        LocalDateTime beat = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try (Connection connection = primary.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1")) {
+            statement.setTimestamp(1, Timestamp.valueOf(beat));
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            log.debug("Could not write the replication heartbeat", e);
+            return;
+        }
+
+        long lag;
+        try (Connection connection = replica.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT beat_at FROM replication_heartbeat WHERE id = 1");
+             ResultSet rs = statement.executeQuery()) {
+            lag = rs.next() ? Math.max(0, Duration.between(rs.getTimestamp(1).toLocalDateTime(), beat).toMillis()) : -1;
+        } catch (SQLException e) {
+            log.debug("Could not read the replication heartbeat from the replica", e);
+            lag = -1;
+        }
+        replicaLagMillis = lag;
+        boolean available = lag >= 0 && lag <= maxLagMillis;
+        if (!checked || available != replicaAvailable) {
+            if (available) {
+                log.info("Read replica is in sync (lag {} ms); routing read-only transactions to it", lag);
+            } else {
+                log.warn("Read replica is {}; routing reads to the primary",
+                        lag < 0 ? "unreachable" : "lagging by " + lag + " ms");
+            }
+        }
+        replicaAvailable = available;
+        checked = true;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    public long getReplicaLagMillis() {
+        return replicaLagMillis;
+    }
+
+    public long getReplicaReadCount() {
+        return replicaReads.get();
+    }
+
+    public long getPrimaryReadCount() {
+        return primaryReads.get();
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    private class Router extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return route();
+        }
+    }
+}
@@ -1,27 +1,46 @@
 package com.fst.dmi.monolith.config;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
-    @Autowired
-    private UserDetailsService userDetailsService;
+    /**
+     * BCrypt at the configured cost, run on a bounded pool. Hashes of any other cost are rehashed
+     * on the user's next successful login.
+     */
+    @Bean
+    public static PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength,
+                                                  @Value("${security.password.verification-threads:0}") int threads,
+                                                  @Value("${security.password.verification-queue:64}") int queueCapacity,
+                                                  @Value("${security.password.verification-timeout-ms:5000}") long timeoutMillis) {
+        return new BoundedPasswordEncoder(new CostAwareBCryptPasswordEncoder(strength), threads, queueCapacity, timeoutMillis);
+    }
 
     @Bean
-    public static PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public DaoAuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+                                                            PasswordEncoder passwordEncoder,
+                                                            UserCache userCache) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserCache(userCache);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        return provider;
     }
 
     @Bean
@@ -30,6 +49,8 @@ public class SecurityConfig {
             .authorizeHttpRequests(authorize -> 
                 authorize
                     .requestMatchers("/register/**", "/login/**", "/h2-console/**", "/css/**", "/js/**").permitAll()
+                    // Health checks and Prometheus scrapes are unauthenticated; keep the port off the public network
+                    .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                     .anyRequest().authenticated()
             )
             .formLogin(form -> 
@@ -37,6 +58,7 @@ public class SecurityConfig {
                     .loginPage("/login")
                     .loginProcessingUrl("/login")
                     .defaultSuccessUrl("/tasks")
+                    .failureHandler(loginFailureHandler())
                     .permitAll()
             )
             .logout(logout -> 
@@ -54,10 +76,18 @@ public class SecurityConfig {
         return http.build();
     }
 
-    @Autowired
-    public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-        auth
-            .userDetailsService(userDetailsService)
-            .passwordEncoder(passwordEncoder());
+    // A saturated password pool answers 503 right away instead of sending the user back to the form
+    private AuthenticationFailureHandler loginFailureHandler() {
+        AuthenticationFailureHandler formFailure = new SimpleUrlAuthenticationFailureHandler("/login?error");
+        return (request, response, exception) -> {
+            if (exception instanceof PasswordVerificationRejectedException) {
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.setContentType("text/plain;charset=UTF-8");
+                response.getWriter().write(exception.getMessage());
+                return;
+            }
+            formFailure.onAuthenticationFailure(request, response, exception);
+        };
     }
 }
@@ -0,0 +1,31 @@
+package com.fst.dmi.monolith.config;
+
+import com.fst.dmi.monolith.service.NotificationService;
+import com.fst.dmi.monolith.service.SweepProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Progress of the notification sweeps as an Actuator endpoint. Sweeps cover all users' tasks, so the
+ * endpoint is only reachable where an operator exposes it (see management.endpoints.web.exposure.include).
+ */
+@Component
+@Endpoint(id = "sweeps")
+public class SweepProgressEndpoint {
+
+    private final NotificationService notificationService;
+
+    @Autowired
+    public SweepProgressEndpoint(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @ReadOperation
+    public Collection<SweepProgress> sweeps() {
+        return notificationService.getSweepProgress();
+    }
+}
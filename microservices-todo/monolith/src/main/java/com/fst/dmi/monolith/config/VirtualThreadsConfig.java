@@ -0,0 +1,115 @@
+package com.fst.dmi.monolith.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+
+/**
+ * Opt-in virtual-thread mode (spring.threads.virtual.enabled=true, same switch as Spring Boot 3.2+):
+ * Tomcat request handlers, {@code @Scheduled} jobs and MVC async work (streamed exports) run on
+ * virtual threads. It needs a Java 21 runtime; on older ones the setting is ignored with a warning.
+ *
+ * <p>Request concurrency is then no longer capped by Tomcat's thread pool, so the DataSource gets an
+ * admission limit: H2 runs statements inside synchronized blocks, which pin a virtual thread to its
+ * carrier, and an unbounded number of them waiting on the pool would only queue up there. BCrypt
+ * hashing and the notification sweeps keep their own bounded platform-thread pools.
+ *
+ * <p>Component scanning registers the nested configurations on their own, so each one carries the
+ * property condition rather than this class.
+ */
+public class VirtualThreadsConfig {
+
+    @Configuration
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    @ConditionalOnJava(JavaVersion.TWENTY_ONE)
+    static class VirtualThreadExecutors {
+
+        @Bean
+        public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+            return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.perTaskExecutor("http-virtual-"));
+        }
+
+        // Used by Spring MVC for StreamingResponseBody and other async request processing
+        @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+        public AsyncTaskExecutor applicationTaskExecutor() {
+            return new TaskExecutorAdapter(VirtualThreads.perTaskExecutor("task-virtual-"));
+        }
+
+        @Bean
+        public TaskScheduler taskScheduler() {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setThreadFactory(VirtualThreads.factory("scheduling-virtual-"));
+            return scheduler;
+        }
+
+        @Bean
+        public static BeanPostProcessor connectionAdmissionPostProcessor(
+                @Value("${datasource.admission.max-concurrent:0}") int maxConcurrent,
+                @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                @Value("${datasource.admission.max-waiting:1000}") int maxWaiting,
+                @Value("${datasource.admission.timeout-ms:5000}") long timeoutMillis,
+                @Value("${datasource.replica.url:}") String replicaUrl,
+                @Value("${datasource.replica.hikari.maximum-pool-size:10}") int replicaPoolSize) {
+            // By default no more callers than the pools have connections, so waiting happens here
+            // (parked, carrier released) rather than inside a pool
+            int connections = poolSize + (replicaUrl.isEmpty() ? 0 : replicaPoolSize);
+            int permits = maxConcurrent > 0 ? maxConcurrent : connections;
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionAdmissionDataSource)) {
+                        return new ConnectionAdmissionDataSource(dataSource, permits, maxWaiting, timeoutMillis);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        @Bean
+        public MeterBinder connectionAdmissionMetrics(DataSource dataSource) {
+            return registry -> {
+                ConnectionAdmissionDataSource admission;
+                try {
+                    admission = dataSource.unwrap(ConnectionAdmissionDataSource.class);
+                } catch (Exception e) {
+                    return;
+                }
+                Gauge.builder("datasource.admission.active", admission, ConnectionAdmissionDataSource::getActiveCount)
+                        .register(registry);
+                Gauge.builder("datasource.admission.waiting", admission, ConnectionAdmissionDataSource::getWaitingCount)
+                        .register(registry);
+                FunctionCounter.builder("datasource.admission.rejected", admission, ConnectionAdmissionDataSource::getRejectedCount)
+                        .description("Connection requests turned away by the admission limit")
+                        .register(registry);
+            };
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    @ConditionalOnJava(range = ConditionalOnJava.Range.OLDER_THAN, value = JavaVersion.TWENTY_ONE)
+    static class Unsupported {
+
+        Unsupported() {
+            LoggerFactory.getLogger(VirtualThreadsConfig.class)
+                    .warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                            Runtime.version().feature());
+        }
+    }
+}
@@ -1,74 +1,94 @@
 package com.fst.dmi.monolith.controller;
 
+import com.fst.dmi.monolith.config.CurrentUser;
+import com.fst.dmi.monolith.config.UserPrincipal;
 import com.fst.dmi.monolith.model.Notification;
-import com.fst.dmi.monolith.model.User;
 import com.fst.dmi.monolith.service.NotificationService;
-import com.fst.dmi.monolith.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
-import java.util.Optional;
 
 @Controller
 @RequestMapping("/notifications")
 public class NotificationController {
 
     private final NotificationService notificationService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
 
     @Autowired
-    public NotificationController(NotificationService notificationService, UserService userService) {
+    public NotificationController(NotificationService notificationService, CurrentUser currentUser) {
         this.notificationService = notificationService;
-        this.userService = userService;
+        this.currentUser = currentUser;
     }
 
     @ModelAttribute("currentUser")
-    public User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return userService.findByUsername(auth.getName());
+    public UserPrincipal getCurrentUser() {
+        return currentUser.getPrincipal();
     }
 
     @GetMapping
     public String listNotifications(Model model) {
-        User currentUser = getCurrentUser();
-        List<Notification> notifications = notificationService.findByUser(currentUser);
+        List<Notification> notifications = notificationService.findByUser(currentUser.getReference());
         model.addAttribute("notifications", notifications);
         return "notification/list";
     }
 
     @PostMapping("/mark-read/{id}")
     public String markAsRead(@PathVariable Long id, RedirectAttributes redirectAttributes) {
-        Optional<Notification> notificationOpt = notificationService.findById(id);
-        
-        if (notificationOpt.isEmpty()) {
-            redirectAttributes.addFlashAttribute("error", "Notification not found");
+        if (!notificationService.markAsRead(id, currentUser.getId())) {
+            redirectAttributes.addFlashAttribute("error", "Notification not found or already read");
             return "redirect:/notifications";
         }
-        
-        Notification notification = notificationOpt.get();
-        User currentUser = getCurrentUser();
-        
-        if (!notification.getTask().getUser().getId().equals(currentUser.getId())) {
-            redirectAttributes.addFlashAttribute("error", "You don't have permission to mark this notification as read");
+
+        redirectAttributes.addFlashAttribute("success", "Notification marked as read");
+        return "redirect:/notifications";
+    }
+
+    @PostMapping("/mark-read")
+    public String markSelectedAsRead(@RequestParam(name = "ids", required = false) List<Long> ids,
+                                     RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "No notifications selected");
             return "redirect:/notifications";
         }
-        
-        notificationService.markAsRead(id);
-        redirectAttributes.addFlashAttribute("success", "Notification marked as read");
+        if (ids.size() > NotificationService.MAX_BULK_IDS) {
+            redirectAttributes.addFlashAttribute("error", "You can mark at most " + NotificationService.MAX_BULK_IDS + " notifications at once");
+            return "redirect:/notifications";
+        }
+
+        int updated = notificationService.markAsRead(ids, currentUser.getId());
+        redirectAttributes.addFlashAttribute("success", updated + " notification(s) marked as read");
+        return "redirect:/notifications";
+    }
+
+    @PostMapping("/mark-all-read")
+    public String markAllAsRead(RedirectAttributes redirectAttributes) {
+        int updated = notificationService.markAllAsRead(currentUser.getId());
+        redirectAttributes.addFlashAttribute("success", updated + " notification(s) marked as read");
         return "redirect:/notifications";
     }
 
     @GetMapping("/count-unread")
     @ResponseBody
     public String getUnreadCount() {
-        User currentUser = getCurrentUser();
-        long count = notificationService.countUnreadNotifications(currentUser);
+        long count = notificationService.countUnreadNotifications(currentUser.getId());
         return String.valueOf(count);
     }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications() {
+        SseEmitter emitter = notificationService.openStream(currentUser.getId());
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
 }
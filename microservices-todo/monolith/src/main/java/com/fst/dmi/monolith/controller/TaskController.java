@@ -1,22 +1,34 @@
 package com.fst.dmi.monolith.controller;
 
+import com.fst.dmi.monolith.config.CurrentUser;
+import com.fst.dmi.monolith.config.UserPrincipal;
 import com.fst.dmi.monolith.model.Task;
-import com.fst.dmi.monolith.model.User;
+import com.fst.dmi.monolith.service.TaskExportService;
+import com.fst.dmi.monolith.service.TaskImportFormat;
+import com.fst.dmi.monolith.service.TaskImportResult;
+import com.fst.dmi.monolith.service.TaskImportService;
+import com.fst.dmi.monolith.service.TaskPage;
 import com.fst.dmi.monolith.service.TaskService;
-import com.fst.dmi.monolith.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -24,28 +36,46 @@ import java.util.Optional;
 public class TaskController {
 
     private final TaskService taskService;
-    private final UserService userService;
+    private final TaskImportService taskImportService;
+    private final TaskExportService taskExportService;
+    private final CurrentUser currentUser;
 
     @Autowired
-    public TaskController(TaskService taskService, UserService userService) {
+    public TaskController(TaskService taskService,
+                          TaskImportService taskImportService,
+                          TaskExportService taskExportService,
+                          CurrentUser currentUser) {
         this.taskService = taskService;
-        this.userService = userService;
+        this.taskImportService = taskImportService;
+        this.taskExportService = taskExportService;
+        this.currentUser = currentUser;
     }
 
     @ModelAttribute("currentUser")
-    public User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return userService.findByUsername(auth.getName());
+    public UserPrincipal getCurrentUser() {
+        return currentUser.getPrincipal();
     }
 
     @GetMapping
-    public String listTasks(Model model) {
-        User currentUser = getCurrentUser();
-        List<Task> tasks = taskService.findAllByUser(currentUser);
-        model.addAttribute("tasks", tasks);
+    public String listTasks(@RequestParam(required = false) String after,
+                            @RequestParam(required = false) String before,
+                            @RequestParam(defaultValue = "" + TaskPage.DEFAULT_SIZE) int size,
+                            Model model) {
+        TaskPage page = taskService.findPageByUser(currentUser.getReference(), after, before, size);
+        model.addAttribute("tasks", page.getTasks());
+        model.addAttribute("page", page);
         return "task/list";
     }
 
+    @GetMapping("/search")
+    public String searchTasks(@RequestParam(defaultValue = "") String q,
+                              @RequestParam(defaultValue = "0") int page,
+                              @RequestParam(defaultValue = "" + TaskPage.DEFAULT_SIZE) int size,
+                              Model model) {
+        model.addAttribute("result", taskService.searchTasks(currentUser.getId(), q.trim(), page, size));
+        return "task/search";
+    }
+
     @GetMapping("/create")
     public String showCreateForm(Model model) {
         model.addAttribute("task", new Task());
@@ -61,8 +91,7 @@ public class TaskController {
             return "task/create";
         }
 
-        User currentUser = getCurrentUser();
-        task.setUser(currentUser);
+        task.setUser(currentUser.getReference());
         task.setDueDate(dueDate);
         
         taskService.createTask(task);
@@ -70,24 +99,71 @@ public class TaskController {
         return "redirect:/tasks";
     }
 
+    @GetMapping("/import")
+    public String showImportForm() {
+        return "task/import";
+    }
+
+    // Streams the request body straight into the importer, e.g. curl --data-binary @tasks.csv -H 'Content-Type: text/csv'
+    @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @ResponseBody
+    public ResponseEntity<?> importTasks(HttpServletRequest request) throws IOException {
+        try {
+            TaskImportFormat format = TaskImportFormat.fromContentType(request.getContentType());
+            return ResponseEntity.ok(taskImportService.importTasks(currentUser.getId(), request.getInputStream(), format));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public String importTasksFromFile(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes) throws IOException {
+        TaskImportResult result;
+        try (InputStream in = file.getInputStream()) {
+            TaskImportFormat format = TaskImportFormat.fromFilename(file.getOriginalFilename());
+            result = taskImportService.importTasks(currentUser.getId(), in, format);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/tasks/import";
+        }
+
+        if (result.getRejected() > 0 || result.isTruncated()) {
+            redirectAttributes.addFlashAttribute("result", result);
+            return "redirect:/tasks/import";
+        }
+        redirectAttributes.addFlashAttribute("success", result.getImported() + " tasks imported successfully");
+        return "redirect:/tasks";
+    }
+
+    // The body is written on an async thread after this method returns, so the user id is resolved here
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(defaultValue = "ndjson") String format,
+                                                             @RequestParam(defaultValue = "false") boolean notifications) {
+        TaskImportFormat exportFormat;
+        try {
+            exportFormat = TaskImportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Long userId = currentUser.getId();
+        String filename = "tasks." + exportFormat.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> taskExportService.export(userId, exportFormat, notifications, out));
+    }
+
     @GetMapping("/edit/{id}")
     public String showEditForm(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
-        Optional<Task> taskOpt = taskService.findById(id);
+        Optional<Task> taskOpt = taskService.findByIdForUser(id, currentUser.getId());
         
         if (taskOpt.isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "Task not found");
             return "redirect:/tasks";
         }
         
-        Task task = taskOpt.get();
-        User currentUser = getCurrentUser();
-        
-        if (!task.getUser().getId().equals(currentUser.getId())) {
-            redirectAttributes.addFlashAttribute("error", "You don't have permission to edit this task");
-            return "redirect:/tasks";
-        }
-        
-        model.addAttribute("task", task);
+        model.addAttribute("task", taskOpt.get());
         return "task/edit";
     }
 
@@ -101,72 +177,36 @@ public class TaskController {
             return "task/edit";
         }
 
-        Optional<Task> existingTaskOpt = taskService.findById(id);
+        boolean updated = taskService.updateTask(id, currentUser.getId(),
+                task.getTitle(), task.getDescription(), dueDate, task.isCompleted());
         
-        if (existingTaskOpt.isEmpty()) {
+        if (!updated) {
             redirectAttributes.addFlashAttribute("error", "Task not found");
             return "redirect:/tasks";
         }
         
-        Task existingTask = existingTaskOpt.get();
-        User currentUser = getCurrentUser();
-        
-        if (!existingTask.getUser().getId().equals(currentUser.getId())) {
-            redirectAttributes.addFlashAttribute("error", "You don't have permission to edit this task");
-            return "redirect:/tasks";
-        }
-        
-        existingTask.setTitle(task.getTitle());
-        existingTask.setDescription(task.getDescription());
-        existingTask.setDueDate(dueDate);
-        existingTask.setCompleted(task.isCompleted());
-        
-        taskService.updateTask(existingTask);
         redirectAttributes.addFlashAttribute("success", "Task updated successfully");
         return "redirect:/tasks";
     }
 
     @PostMapping("/complete/{id}")
     public String completeTask(@PathVariable Long id, RedirectAttributes redirectAttributes) {
-        Optional<Task> taskOpt = taskService.findById(id);
-        
-        if (taskOpt.isEmpty()) {
+        if (!taskService.completeTask(id, currentUser.getId())) {
             redirectAttributes.addFlashAttribute("error", "Task not found");
             return "redirect:/tasks";
         }
         
-        Task task = taskOpt.get();
-        User currentUser = getCurrentUser();
-        
-        if (!task.getUser().getId().equals(currentUser.getId())) {
-            redirectAttributes.addFlashAttribute("error", "You don't have permission to complete this task");
-            return "redirect:/tasks";
-        }
-        
-        task.setCompleted(true);
-        taskService.updateTask(task);
         redirectAttributes.addFlashAttribute("success", "Task marked as completed");
         return "redirect:/tasks";
     }
 
     @PostMapping("/delete/{id}")
     public String deleteTask(@PathVariable Long id, RedirectAttributes redirectAttributes) {
-        Optional<Task> taskOpt = taskService.findById(id);
-        
-        if (taskOpt.isEmpty()) {
+        if (!taskService.deleteTask(id, currentUser.getId())) {
             redirectAttributes.addFlashAttribute("error", "Task not found");
             return "redirect:/tasks";
         }
         
-        Task task = taskOpt.get();
-        User currentUser = getCurrentUser();
-        
-        if (!task.getUser().getId().equals(currentUser.getId())) {
-            redirectAttributes.addFlashAttribute("error", "You don't have permission to delete this task");
-            return "redirect:/tasks";
-        }
-        
-        taskService.deleteTask(id);
         redirectAttributes.addFlashAttribute("success", "Task deleted successfully");
         return "redirect:/tasks";
     }
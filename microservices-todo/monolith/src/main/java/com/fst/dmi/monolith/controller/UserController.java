@@ -1,11 +1,12 @@
 package com.fst.dmi.monolith.controller;
 
+import com.fst.dmi.monolith.config.CurrentUser;
 import com.fst.dmi.monolith.model.User;
 import com.fst.dmi.monolith.service.UserService;
+import com.fst.dmi.monolith.service.UserStatsService;
+import com.fst.dmi.monolith.service.UserStatsView;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -13,6 +14,7 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
@@ -20,11 +22,16 @@ public class UserController {
 
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
+    private final UserStatsService userStatsService;
+    private final CurrentUser currentUser;
 
     @Autowired
-    public UserController(UserService userService, PasswordEncoder passwordEncoder) {
+    public UserController(UserService userService, PasswordEncoder passwordEncoder,
+                          UserStatsService userStatsService, CurrentUser currentUser) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
+        this.userStatsService = userStatsService;
+        this.currentUser = currentUser;
     }
 
     @GetMapping("/register")
@@ -56,9 +63,14 @@ public class UserController {
 
     @GetMapping("/profile")
     public String showProfile(Model model) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User user = userService.findByUsername(auth.getName());
-        model.addAttribute("user", user);
+        model.addAttribute("user", currentUser.getUser());
+        model.addAttribute("stats", userStatsService.getStats(currentUser.getId()));
         return "profile";
     }
+
+    @GetMapping("/profile/stats")
+    @ResponseBody
+    public UserStatsView getStats() {
+        return userStatsService.getStats(currentUser.getId());
+    }
 }
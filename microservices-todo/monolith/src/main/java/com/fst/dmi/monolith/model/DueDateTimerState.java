@@ -0,0 +1,42 @@
+package com.fst.dmi.monolith.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Single row recording the firing time up to which every due-date timer has been handled; see
+ * {@code DueDateScheduler}.
+ */
+@Entity
+@Table(name = "due_date_timer_state")
+public class DueDateTimerState {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private LocalDateTime firedUntil;
+
+    // Constructors
+    public DueDateTimerState() {
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getFiredUntil() {
+        return firedUntil;
+    }
+
+    public void setFiredUntil(LocalDateTime firedUntil) {
+        this.firedUntil = firedUntil;
+    }
+}
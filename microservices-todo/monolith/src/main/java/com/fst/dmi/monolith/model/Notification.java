@@ -7,8 +7,10 @@ import java.time.LocalDateTime;
 @Table(name = "notifications")
 public class Notification {
 
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts (see V3 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notification_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -10,8 +10,10 @@ import java.util.List;
 @Table(name = "tasks")
 public class Task {
 
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts (see V3 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
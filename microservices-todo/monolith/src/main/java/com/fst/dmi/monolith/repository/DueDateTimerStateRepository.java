@@ -0,0 +1,24 @@
+package com.fst.dmi.monolith.repository;
+
+import com.fst.dmi.monolith.model.DueDateTimerState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface DueDateTimerStateRepository extends JpaRepository<DueDateTimerState, Integer> {
+
+    @Query("SELECT s.firedUntil FROM DueDateTimerState s WHERE s.id = " + DueDateTimerState.ID)
+    Optional<LocalDateTime> findFiredUntil();
+
+    // Only ever moves forward
+    @Modifying
+    @Transactional
+    @Query("UPDATE DueDateTimerState s SET s.firedUntil = ?1 WHERE s.id = " + DueDateTimerState.ID + " AND s.firedUntil < ?1")
+    int advanceFiredUntil(LocalDateTime firedUntil);
+}
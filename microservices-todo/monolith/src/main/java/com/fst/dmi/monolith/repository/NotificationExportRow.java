@@ -0,0 +1,12 @@
+package com.fst.dmi.monolith.repository;
+
+import java.time.LocalDateTime;
+
+// Notification columns written by the task export, read without loading entities
+public interface NotificationExportRow {
+    Long getId();
+    Long getTaskId();
+    String getMessage();
+    LocalDateTime getCreatedAt();
+    boolean isRead();
+}
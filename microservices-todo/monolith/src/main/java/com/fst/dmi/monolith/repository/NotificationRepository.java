@@ -3,11 +3,19 @@ package com.fst.dmi.monolith.repository;
 import com.fst.dmi.monolith.model.Notification;
 import com.fst.dmi.monolith.model.Task;
 import com.fst.dmi.monolith.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -16,8 +24,105 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.task.user = ?1 ORDER BY n.createdAt DESC")
     List<Notification> findByUser(User user);
     
+    // Export: ordered by task id so it can be merged with TaskRepository.streamByUserId
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT n.id AS id, n.task.id AS taskId, n.message AS message, n.createdAt AS createdAt, n.read AS read " +
+           "FROM Notification n WHERE n.task.user.id = ?1 ORDER BY n.task.id, n.id")
+    Stream<NotificationExportRow> streamExportRowsByUserId(Long userId);
+
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.task.user = ?1 AND n.read = false")
     long countUnreadByUser(User user);
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.task.user.id = ?1 AND n.read = false")
+    long countUnreadByUserId(Long userId);
     
-    boolean existsByTaskAndReadFalse(Task task);
+    @Query("SELECT n.task.user.id AS userId, COUNT(n) AS unread FROM Notification n " +
+           "WHERE n.read = false AND n.task.user.id IN ?1 GROUP BY n.task.user.id")
+    List<UserUnreadCount> countUnreadByUserIds(Collection<Long> userIds);
+
+    // The notifications of one bulk insert, which all share its createdAt
+    @Query("SELECT n FROM Notification n WHERE n.task.user.id = ?1 AND n.createdAt = ?2 AND n.read = false ORDER BY n.id")
+    List<Notification> findUnreadByUserIdAndCreatedAt(Long userId, LocalDateTime createdAt);
+
+    // Ownership-scoped bulk updates: a notification belongs to the owner of its task
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.read = true WHERE n.id = ?1 AND n.read = false " +
+           "AND n.task.id IN (SELECT t.id FROM Task t WHERE t.user.id = ?2)")
+    int markReadByIdAndUserId(Long id, Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.read = true WHERE n.id IN ?1 AND n.read = false " +
+           "AND n.task.id IN (SELECT t.id FROM Task t WHERE t.user.id = ?2)")
+    int markReadByIdsAndUserId(Collection<Long> ids, Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.read = true WHERE n.read = false " +
+           "AND n.task.id IN (SELECT t.id FROM Task t WHERE t.user.id = ?1)")
+    int markAllReadByUserId(Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Notification n WHERE n.read = ?3 " +
+           "AND n.task.id IN (SELECT t.id FROM Task t WHERE t.id = ?1 AND t.user.id = ?2)")
+    int deleteByTaskIdAndUserIdAndRead(Long taskId, Long userId, boolean read);
+
+    // Bulk inserts, one statement per task id chunk, skipping tasks that already have an unread notification.
+    // Native so the id comes from the column default (notification_seq): as HQL, Hibernate stages the rows
+    // in a temporary table to assign pooled ids, and on H2 creating that table commits the transaction.
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO notifications (message, created_at, read, task_id) " +
+           "SELECT CONCAT('Task ''', t.title, ''' is due today!'), ?3, FALSE, t.id FROM tasks t " +
+           "WHERE t.completed = FALSE AND t.due_date BETWEEN ?1 AND ?2 AND t.id BETWEEN ?4 AND ?5 " +
+           "AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.task_id = t.id AND n.read = FALSE)",
+           nativeQuery = true)
+    int insertDueTodayNotifications(LocalDateTime start, LocalDateTime end, LocalDateTime createdAt, Long fromId, Long toId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO notifications (message, created_at, read, task_id) " +
+           "SELECT CONCAT('Task ''', t.title, ''' is due soon (due date: ', CAST(CAST(t.due_date AS DATE) AS VARCHAR), ')'), ?3, FALSE, t.id FROM tasks t " +
+           "WHERE t.completed = FALSE AND t.due_date BETWEEN ?1 AND ?2 AND t.id BETWEEN ?4 AND ?5 " +
+           "AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.task_id = t.id AND n.read = FALSE)",
+           nativeQuery = true)
+    int insertDueSoonNotifications(LocalDateTime start, LocalDateTime end, LocalDateTime createdAt, Long fromId, Long toId);
+
+    // Due-date timers: the same inserts for the tasks whose timers fired
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO notifications (message, created_at, read, task_id) " +
+           "SELECT CONCAT('Task ''', t.title, ''' is due today!'), ?3, FALSE, t.id FROM tasks t " +
+           "WHERE t.completed = FALSE AND t.due_date BETWEEN ?1 AND ?2 AND t.id IN ?4 " +
+           "AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.task_id = t.id AND n.read = FALSE)",
+           nativeQuery = true)
+    int insertDueTodayNotificationsForTaskIds(LocalDateTime start, LocalDateTime end, LocalDateTime createdAt, Collection<Long> taskIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO notifications (message, created_at, read, task_id) " +
+           "SELECT CONCAT('Task ''', t.title, ''' is due soon (due date: ', CAST(CAST(t.due_date AS DATE) AS VARCHAR), ')'), ?3, FALSE, t.id FROM tasks t " +
+           "WHERE t.completed = FALSE AND t.due_date BETWEEN ?1 AND ?2 AND t.id IN ?4 " +
+           "AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.task_id = t.id AND n.read = FALSE)",
+           nativeQuery = true)
+    int insertDueSoonNotificationsForTaskIds(LocalDateTime start, LocalDateTime end, LocalDateTime createdAt, Collection<Long> taskIds);
+
+    // Task events: due-soon notifications for the user's open tasks that fall due within [start, end]
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO notifications (message, created_at, read, task_id) " +
+           "SELECT CONCAT('Task ''', t.title, ''' is due soon (due date: ', CAST(CAST(t.due_date AS DATE) AS VARCHAR), ')'), ?1, FALSE, t.id FROM tasks t " +
+           "WHERE t.user_id = ?2 AND t.id IN ?3 AND t.completed = FALSE AND t.due_date BETWEEN ?4 AND ?5 " +
+           "AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.task_id = t.id AND n.read = FALSE)",
+           nativeQuery = true)
+    int insertDueSoonNotificationsForOpenTasks(LocalDateTime createdAt, Long userId, Collection<Long> taskIds,
+                                               LocalDateTime start, LocalDateTime end);
 }
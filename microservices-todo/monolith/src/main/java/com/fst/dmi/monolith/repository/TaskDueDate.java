@@ -0,0 +1,13 @@
+package com.fst.dmi.monolith.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a task that decide when its due-date notifications fire.
+ */
+public interface TaskDueDate {
+    Long getId();
+    Long getUserId();
+    LocalDateTime getDueDate();
+    boolean isCompleted();
+}
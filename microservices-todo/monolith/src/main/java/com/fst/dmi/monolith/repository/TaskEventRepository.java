@@ -0,0 +1,33 @@
+package com.fst.dmi.monolith.repository;
+
+import com.fst.dmi.monolith.model.TaskEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskEventRepository extends JpaRepository<TaskEvent, Long> {
+
+    List<TaskEvent> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    // Oldest undelivered events first; events that used up their attempts are left out
+    List<TaskEvent> findByAttemptsLessThanOrderByIdAsc(int maxAttempts, Pageable pageable);
+
+    long countByAttemptsGreaterThanEqual(int maxAttempts);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TaskEvent e WHERE e.id IN ?1")
+    int deleteByIds(Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE TaskEvent e SET e.attempts = e.attempts + 1 WHERE e.id = ?1")
+    int incrementAttempts(Long id);
+}
@@ -0,0 +1,9 @@
+package com.fst.dmi.monolith.repository;
+
+/**
+ * Smallest and largest task id matching a sweep window; both are null when nothing matches.
+ */
+public interface TaskIdRange {
+    Long getMinId();
+    Long getMaxId();
+}
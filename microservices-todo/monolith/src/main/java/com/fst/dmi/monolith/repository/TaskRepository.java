@@ -2,11 +2,21 @@ package com.fst.dmi.monolith.repository;
 
 import com.fst.dmi.monolith.model.Task;
 import com.fst.dmi.monolith.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
@@ -14,4 +24,86 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findByUserOrderByDueDateAsc(User user);
     List<Task> findByCompletedFalseAndDueDateBefore(LocalDateTime date);
     List<Task> findByCompletedFalseAndDueDateBetween(LocalDateTime start, LocalDateTime end);
+
+    // Export: read-only rows pulled from a cursor in fetch-size chunks; the caller must close the stream
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Task t WHERE t.user.id = ?1 ORDER BY t.id")
+    Stream<Task> streamByUserId(Long userId);
+
+    // Ownership-scoped access: every statement filters on both the task id and the owner id
+
+    @Query("SELECT t FROM Task t WHERE t.id = ?1 AND t.user.id = ?2")
+    Optional<Task> findByIdAndUserId(Long id, Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Task t SET t.title = ?3, t.description = ?4, t.dueDate = ?5, t.completed = ?6 " +
+           "WHERE t.id = ?1 AND t.user.id = ?2")
+    int updateByIdAndUserId(Long id, Long userId, String title, String description, LocalDateTime dueDate, boolean completed);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Task t SET t.completed = ?3 WHERE t.id = ?1 AND t.user.id = ?2 AND t.completed <> ?3")
+    int changeCompletedByIdAndUserId(Long id, Long userId, boolean completed);
+
+    // Matches on the completion state too, so the caller knows which counter the deleted task was in
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Task t WHERE t.id = ?1 AND t.user.id = ?2 AND t.completed = ?3")
+    int deleteByIdAndUserIdAndCompleted(Long id, Long userId, boolean completed);
+
+    @Query("SELECT COUNT(t) > 0 FROM Task t WHERE t.id = ?1 AND t.user.id = ?2")
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.user.id = ?1 AND t.dueDate < ?2 AND t.completed = false")
+    long countOverdueByUserId(Long userId, LocalDateTime now);
+
+    @Query("SELECT min(t.id) AS minId, max(t.id) AS maxId FROM Task t " +
+           "WHERE t.completed = false AND t.dueDate BETWEEN ?1 AND ?2")
+    TaskIdRange findOpenTaskIdRange(LocalDateTime start, LocalDateTime end);
+
+    // Due-date timers: the horizon is loaded in (dueDate, id) order, one page at a time
+    @Query("SELECT t.id AS id, t.user.id AS userId, t.dueDate AS dueDate, t.completed AS completed FROM Task t " +
+           "WHERE t.completed = false AND t.dueDate <= ?3 AND (t.dueDate > ?1 OR (t.dueDate = ?1 AND t.id > ?2)) " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<TaskDueDate> findOpenDueDatesAfter(LocalDateTime dueDate, Long id, LocalDateTime until, Pageable pageable);
+
+    @Query("SELECT t.id AS id, t.user.id AS userId, t.dueDate AS dueDate, t.completed AS completed FROM Task t " +
+           "WHERE t.id IN ?1")
+    List<TaskDueDate> findDueDatesByIdIn(Collection<Long> ids);
+
+    // Search: index rows, and the tasks of a result page
+    @Query("SELECT t.id AS id, t.user.id AS userId, t.title AS title, t.description AS description FROM Task t " +
+           "WHERE t.user.id = ?1")
+    List<TaskSearchDocument> findSearchDocumentsByUserId(Long userId);
+
+    @Query("SELECT t.id AS id, t.user.id AS userId, t.title AS title, t.description AS description FROM Task t " +
+           "WHERE t.id IN ?1")
+    List<TaskSearchDocument> findSearchDocumentsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT DISTINCT t.user.id FROM Task t")
+    List<Long> findUserIdsWithTasks();
+
+    @Transactional(readOnly = true)
+    @Query("SELECT t FROM Task t WHERE t.id IN ?1 AND t.user.id = ?2")
+    List<Task> findByIdInAndUserId(Collection<Long> ids, Long userId);
+
+    // Keyset pagination: dated tasks ordered by (dueDate, id), followed by undated tasks ordered by id
+    List<Task> findByUserAndDueDateNotNullOrderByDueDateAscIdAsc(User user, Pageable pageable);
+    List<Task> findByUserAndDueDateNotNullOrderByDueDateDescIdDesc(User user, Pageable pageable);
+    List<Task> findByUserAndDueDateNullOrderByIdAsc(User user, Pageable pageable);
+    List<Task> findByUserAndDueDateNullAndIdGreaterThanOrderByIdAsc(User user, Long id, Pageable pageable);
+    List<Task> findByUserAndDueDateNullAndIdLessThanOrderByIdDesc(User user, Long id, Pageable pageable);
+
+    @Query("SELECT t FROM Task t WHERE t.user = ?1 AND (t.dueDate > ?2 OR (t.dueDate = ?2 AND t.id > ?3)) " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<Task> findDatedAfter(User user, LocalDateTime dueDate, Long id, Pageable pageable);
+
+    @Query("SELECT t FROM Task t WHERE t.user = ?1 AND (t.dueDate < ?2 OR (t.dueDate = ?2 AND t.id < ?3)) " +
+           "ORDER BY t.dueDate DESC, t.id DESC")
+    List<Task> findDatedBefore(User user, LocalDateTime dueDate, Long id, Pageable pageable);
 }
@@ -0,0 +1,11 @@
+package com.fst.dmi.monolith.repository;
+
+/**
+ * The fields of a task that are indexed for search.
+ */
+public interface TaskSearchDocument {
+    Long getId();
+    Long getUserId();
+    String getTitle();
+    String getDescription();
+}
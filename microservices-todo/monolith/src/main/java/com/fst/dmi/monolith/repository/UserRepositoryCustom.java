@@ -0,0 +1,18 @@
+package com.fst.dmi.monolith.repository;
+
+import com.fst.dmi.monolith.model.User;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Loads a user by username through the natural-id cache, so repeated lookups are served from
+     * the second-level cache instead of a query. Returns null when no such user exists.
+     */
+    User findByUsername(String username);
+
+    /**
+     * Drops the user from the entity and natural-id caches; needed after changes made outside the
+     * persistence context, such as bulk or native updates.
+     */
+    void evictFromCache(Long id);
+}
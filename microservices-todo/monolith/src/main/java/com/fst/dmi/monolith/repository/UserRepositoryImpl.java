@@ -0,0 +1,30 @@
+package com.fst.dmi.monolith.repository;
+
+import com.fst.dmi.monolith.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public User findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .load(username);
+    }
+
+    @Override
+    public void evictFromCache(Long id) {
+        // Hibernate has no per-key natural-id eviction, so the username mappings are dropped together
+        org.hibernate.Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(User.class, id);
+        cache.evictNaturalIdData(User.class);
+    }
+}
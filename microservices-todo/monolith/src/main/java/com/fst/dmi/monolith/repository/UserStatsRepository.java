@@ -0,0 +1,70 @@
+package com.fst.dmi.monolith.repository;
+
+import com.fst.dmi.monolith.model.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Relative adjustments, so concurrent changes for the same user never overwrite each other
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserStats s SET s.openTasks = s.openTasks + ?2, s.completedTasks = s.completedTasks + ?3, " +
+           "s.updatedAt = ?4 WHERE s.userId = ?1")
+    int adjustTasks(Long userId, long openDelta, long completedDelta, LocalDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserStats s SET s.unreadNotifications = s.unreadNotifications + ?2, s.updatedAt = ?3 WHERE s.userId = ?1")
+    int adjustUnread(Long userId, long delta, LocalDateTime updatedAt);
+
+    // Sweep chunks insert notifications for many users; their rows are found by the sweep's createdAt
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserStats s SET s.unreadNotifications = s.unreadNotifications + " +
+           "(SELECT COUNT(n) FROM Notification n WHERE n.task.user.id = s.userId AND n.createdAt = ?1 " +
+           "AND n.read = false AND n.task.id BETWEEN ?2 AND ?3), s.updatedAt = ?4 " +
+           "WHERE s.userId IN (SELECT n.task.user.id FROM Notification n WHERE n.createdAt = ?1 " +
+           "AND n.read = false AND n.task.id BETWEEN ?2 AND ?3)")
+    int addSweepNotifications(LocalDateTime createdAt, Long fromId, Long toId, LocalDateTime updatedAt);
+
+    // Drift repair: create missing rows, then recompute the counters from the source tables
+
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO UserStats (userId, openTasks, completedTasks, unreadNotifications, updatedAt) " +
+           "SELECT u.id, 0L, 0L, 0L, ?1 FROM User u WHERE NOT EXISTS (SELECT s.userId FROM UserStats s WHERE s.userId = u.id)")
+    int insertMissing(LocalDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO UserStats (userId, openTasks, completedTasks, unreadNotifications, updatedAt) " +
+           "SELECT u.id, 0L, 0L, 0L, ?2 FROM User u WHERE u.id = ?1 " +
+           "AND NOT EXISTS (SELECT s.userId FROM UserStats s WHERE s.userId = u.id)")
+    int insertMissing(Long userId, LocalDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserStats s SET " +
+           "s.openTasks = (SELECT COUNT(t) FROM Task t WHERE t.user.id = s.userId AND t.completed = false), " +
+           "s.completedTasks = (SELECT COUNT(t) FROM Task t WHERE t.user.id = s.userId AND t.completed = true), " +
+           "s.unreadNotifications = (SELECT COUNT(n) FROM Notification n WHERE n.task.user.id = s.userId AND n.read = false), " +
+           "s.updatedAt = ?1")
+    int recomputeAll(LocalDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserStats s SET " +
+           "s.openTasks = (SELECT COUNT(t) FROM Task t WHERE t.user.id = s.userId AND t.completed = false), " +
+           "s.completedTasks = (SELECT COUNT(t) FROM Task t WHERE t.user.id = s.userId AND t.completed = true), " +
+           "s.unreadNotifications = (SELECT COUNT(n) FROM Notification n WHERE n.task.user.id = s.userId AND n.read = false), " +
+           "s.updatedAt = ?2 WHERE s.userId = ?1")
+    int recompute(Long userId, LocalDateTime updatedAt);
+}
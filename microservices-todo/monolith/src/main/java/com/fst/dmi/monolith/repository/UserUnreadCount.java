@@ -0,0 +1,6 @@
+package com.fst.dmi.monolith.repository;
+
+public interface UserUnreadCount {
+    Long getUserId();
+    Long getUnread();
+}
@@ -0,0 +1,405 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.TaskEvent;
+import com.fst.dmi.monolith.repository.DueDateTimerStateRepository;
+import com.fst.dmi.monolith.repository.TaskDueDate;
+import com.fst.dmi.monolith.repository.TaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Fires each open task's due-soon and due-today notifications at their own time, replacing the daily
+ * sweeps over the tasks table.
+ *
+ * <p>Timers are kept in memory in a priority queue ordered by firing time, for tasks due within a
+ * sliding horizon: it is loaded page by page at startup and extended every {@code refill-interval}.
+ * Task events keep it current; a task whose due date is edited gets new timers under a new
+ * generation number and its old ones are skipped when they come up, and completed or deleted tasks
+ * are dropped. A task's due-soon timer fires {@code due-soon-lead} before its due date, its due-today
+ * timer at {@code due-today-at} on the due day (or at the due time, if earlier).
+ *
+ * <p>The time up to which timers have been handled is kept in the due_date_timer_state row. At
+ * startup, timers that came due since then are loaded with the horizon and fire right away, so
+ * notifications due while the application was down are sent once it is back (going back at most
+ * one horizon).
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.timer.enabled", havingValue = "true", matchIfMissing = true)
+public class DueDateScheduler implements TaskEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DueDateScheduler.class);
+
+    private static final Comparator<Timer> BY_FIRING_TIME =
+            Comparator.comparing((Timer timer) -> timer.fireAt).thenComparing(timer -> timer.kind);
+
+    private final TaskRepository taskRepository;
+    private final DueDateTimerStateRepository timerStateRepository;
+    private final NotificationService notificationService;
+    private final Duration horizon;
+    private final Duration refillInterval;
+    private final Duration dueSoonLead;
+    private final LocalTime dueTodayAt;
+    private final int loadBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>(BY_FIRING_TIME);
+    // Generation and due date of each task's current timers; timers of any other generation are stale
+    private final Map<Long, Scheduled> scheduled = new HashMap<>();
+    private long generation;
+    private LocalDateTime loadedUntil;
+    private LocalDateTime nextRefill;
+    // Every timer firing up to this time has been handled
+    private volatile LocalDateTime handledUntil;
+
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @Autowired
+    public DueDateScheduler(TaskRepository taskRepository,
+                            DueDateTimerStateRepository timerStateRepository,
+                            NotificationService notificationService,
+                            @Value("${notifications.timer.horizon:7d}") Duration horizon,
+                            @Value("${notifications.timer.refill-interval:1h}") Duration refillInterval,
+                            @Value("${notifications.timer.due-soon-lead:3d}") Duration dueSoonLead,
+                            @Value("${notifications.timer.due-today-at:09:00}") String dueTodayAt,
+                            @Value("${notifications.timer.load-batch-size:1000}") int loadBatchSize) {
+        this.taskRepository = taskRepository;
+        this.timerStateRepository = timerStateRepository;
+        this.notificationService = notificationService;
+        this.refillInterval = refillInterval;
+        this.dueSoonLead = dueSoonLead;
+        this.dueTodayAt = LocalTime.parse(dueTodayAt);
+        this.loadBatchSize = Math.max(1, loadBatchSize);
+        // A task must be loaded before its due-soon timer is due
+        Duration minimum = dueSoonLead.plus(refillInterval);
+        this.horizon = horizon.compareTo(minimum) < 0 ? minimum : horizon;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "due-date-timer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onTaskEvents(List<TaskEvent> events) {
+        Set<Long> changedIds = new LinkedHashSet<>();
+        for (TaskEvent event : events) {
+            if (event.getType() == TaskEvent.Type.DELETED) {
+                changedIds.remove(event.getTaskId());
+                cancel(event.getTaskId());
+            } else {
+                changedIds.add(event.getTaskId());
+            }
+        }
+        if (changedIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new LinkedHashSet<>(changedIds);
+        for (TaskDueDate task : taskRepository.findDueDatesByIdIn(changedIds)) {
+            missing.remove(task.getId());
+            if (task.isCompleted() || task.getDueDate() == null) {
+                cancel(task.getId());
+            } else {
+                schedule(task.getId(), task.getUserId(), task.getDueDate(), true, null);
+            }
+        }
+        missing.forEach(this::cancel);
+    }
+
+    private void cancel(Long taskId) {
+        lock.lock();
+        try {
+            scheduled.remove(taskId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates the task's timers for firing times after {@code since} (now when null). The horizon
+     * loader passes {@code replace = false} so that a page read before a concurrent edit cannot
+     * overwrite the timers created for that edit.
+     */
+    private void schedule(Long taskId, Long userId, LocalDateTime dueDate, boolean replace, LocalDateTime since) {
+        LocalDateTime notBefore = since != null ? since : LocalDateTime.now();
+        lock.lock();
+        try {
+            if (loadedUntil == null || dueDate.isAfter(loadedUntil) || !dueDate.isAfter(notBefore)) {
+                // Past due, or picked up later when the horizon reaches it
+                if (replace) {
+                    scheduled.remove(taskId);
+                }
+                return;
+            }
+            Scheduled previous = scheduled.get(taskId);
+            if (previous != null && (!replace || previous.dueDate.equals(dueDate))) {
+                return;
+            }
+            LocalDateTime dueTodayTime = dueDate.toLocalDate().atTime(dueTodayAt);
+            LocalDateTime dueToday = dueTodayTime.isBefore(dueDate) ? dueTodayTime : dueDate;
+            if (!dueToday.isAfter(notBefore)) {
+                scheduled.remove(taskId);
+                return;
+            }
+            Scheduled current = new Scheduled(++generation, dueDate);
+            scheduled.put(taskId, current);
+            LocalDateTime dueSoon = dueDate.minus(dueSoonLead);
+            if (dueSoon.isAfter(notBefore) && dueSoon.isBefore(dueToday)) {
+                timers.add(new Timer(dueSoon, Kind.DUE_SOON, taskId, userId, current.generation));
+            }
+            timers.add(new Timer(dueToday, Kind.DUE_TODAY, taskId, userId, current.generation));
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (nextRefill == null || !LocalDateTime.now().isBefore(nextRefill)) {
+                    extendHorizon();
+                }
+                List<Timer> due = awaitDue();
+                if (!due.isEmpty()) {
+                    fire(due);
+                    recordFiredUntil(due.get(due.size() - 1).fireAt);
+                } else if (handledUntil != null) {
+                    recordFiredUntil(handledUntil);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Most likely the database; the horizon load is retried at the next refill
+                log.warn("Due-date timer failed", e);
+                nextRefill = LocalDateTime.now().plusMinutes(1);
+            }
+        }
+    }
+
+    /**
+     * Loads the open tasks that fall due between the current and the new end of the horizon. The
+     * first load starts where the timers last fired, so the ones missed meanwhile are caught up on.
+     */
+    private void extendHorizon() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(horizon);
+        LocalDateTime since = loadedUntil == null ? catchUpFrom(now) : null;
+        LocalDateTime from;
+        lock.lock();
+        try {
+            from = since != null ? since : loadedUntil == null ? now : loadedUntil;
+            // Task events for the new range are scheduled from here on, while it is being loaded
+            loadedUntil = until;
+        } finally {
+            lock.unlock();
+        }
+        LocalDateTime afterDueDate = from;
+        long afterId = 0;
+        int loaded = 0;
+        while (running) {
+            List<TaskDueDate> page = taskRepository.findOpenDueDatesAfter(afterDueDate, afterId, until,
+                    PageRequest.of(0, loadBatchSize));
+            for (TaskDueDate task : page) {
+                schedule(task.getId(), task.getUserId(), task.getDueDate(), false, since);
+            }
+            loaded += page.size();
+            if (page.size() < loadBatchSize) {
+                break;
+            }
+            TaskDueDate last = page.get(page.size() - 1);
+            afterDueDate = last.getDueDate();
+            afterId = last.getId();
+        }
+        nextRefill = now.plus(refillInterval);
+        log.info("Due-date timers loaded for {} tasks due by {} ({} scheduled)", loaded, until, getScheduledCount());
+    }
+
+    private LocalDateTime catchUpFrom(LocalDateTime now) {
+        LocalDateTime oldest = now.minus(horizon);
+        LocalDateTime firedUntil = timerStateRepository.findFiredUntil().orElse(now);
+        if (firedUntil.isBefore(now)) {
+            log.info("Catching up on due-date timers since {}", firedUntil.isBefore(oldest) ? oldest : firedUntil);
+        }
+        return firedUntil.isBefore(oldest) ? oldest : firedUntil;
+    }
+
+    // Recorded after each firing and at each refill; timers that fired are never caught up on again
+    private void recordFiredUntil(LocalDateTime firedUntil) {
+        try {
+            timerStateRepository.advanceFiredUntil(firedUntil);
+        } catch (RuntimeException e) {
+            log.warn("Could not record due-date timer progress", e);
+        }
+    }
+
+    // Waits until the earliest timer is due or the next refill, and returns the timers due by then
+    private List<Timer> awaitDue() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running) {
+                LocalDateTime now = LocalDateTime.now();
+                if (!now.isBefore(nextRefill)) {
+                    return List.of();
+                }
+                Timer head = timers.peek();
+                if (head != null && !head.fireAt.isAfter(now)) {
+                    List<Timer> due = new ArrayList<>();
+                    while (head != null && !head.fireAt.isAfter(now)) {
+                        timers.poll();
+                        Scheduled current = scheduled.get(head.taskId);
+                        if (current != null && current.generation == head.generation) {
+                            due.add(head);
+                            if (head.kind == Kind.DUE_TODAY) {
+                                scheduled.remove(head.taskId);
+                            }
+                        }
+                        head = timers.peek();
+                    }
+                    if (!due.isEmpty()) {
+                        return due;
+                    }
+                    continue;
+                }
+                handledUntil = now;
+                LocalDateTime wakeUp = head != null && head.fireAt.isBefore(nextRefill) ? head.fireAt : nextRefill;
+                changed.await(Math.max(1, Duration.between(now, wakeUp).toMillis()), TimeUnit.MILLISECONDS);
+            }
+            return List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fire(List<Timer> due) {
+        for (Kind kind : Kind.values()) {
+            List<Timer> ofKind = due.stream().filter(timer -> timer.kind == kind).toList();
+            for (int i = 0; i < ofKind.size(); i += NotificationService.MAX_BULK_IDS) {
+                List<Timer> chunk = ofKind.subList(i, Math.min(i + NotificationService.MAX_BULK_IDS, ofKind.size()));
+                List<Long> taskIds = ids(chunk, timer -> timer.taskId);
+                List<Long> userIds = ids(chunk, timer -> timer.userId);
+                try {
+                    if (kind == Kind.DUE_SOON) {
+                        notificationService.notifyTasksDueSoon(taskIds, userIds, dueSoonLead);
+                    } else {
+                        notificationService.notifyTasksDueToday(taskIds, userIds);
+                    }
+                    fired.addAndGet(chunk.size());
+                } catch (RuntimeException e) {
+                    failed.addAndGet(chunk.size());
+                    log.error("Could not create {} notifications for tasks {}", kind, taskIds, e);
+                }
+            }
+        }
+    }
+
+    private static List<Long> ids(List<Timer> timers, Function<Timer, Long> id) {
+        return timers.stream().map(id).distinct().toList();
+    }
+
+    public int getScheduledCount() {
+        lock.lock();
+        try {
+            return scheduled.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTimerCount() {
+        lock.lock();
+        try {
+            return timers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFiredCount() {
+        return fired.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    private enum Kind {
+        DUE_SOON, DUE_TODAY
+    }
+
+    private static final class Scheduled {
+        final long generation;
+        final LocalDateTime dueDate;
+
+        Scheduled(long generation, LocalDateTime dueDate) {
+            this.generation = generation;
+            this.dueDate = dueDate;
+        }
+    }
+
+    private static final class Timer {
+        final LocalDateTime fireAt;
+        final Kind kind;
+        final Long taskId;
+        final Long userId;
+        final long generation;
+
+        Timer(LocalDateTime fireAt, Kind kind, Long taskId, Long userId, long generation) {
+            this.fireAt = fireAt;
+            this.kind = kind;
+            this.taskId = taskId;
+            this.userId = userId;
+            this.generation = generation;
+        }
+    }
+}
@@ -1,98 +1,342 @@
 package com.fst.dmi.monolith.service;
 
 import com.fst.dmi.monolith.model.Notification;
-import com.fst.dmi.monolith.model.Task;
 import com.fst.dmi.monolith.model.User;
 import com.fst.dmi.monolith.repository.NotificationRepository;
 import com.fst.dmi.monolith.repository.TaskRepository;
+import com.fst.dmi.monolith.repository.UserUnreadCount;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.IntSupplier;
 
 @Service
+@Timed(value = "notifications.service", histogram = true)
 public class NotificationService {
 
+    public static final int MAX_BULK_IDS = 500;
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
     private final NotificationRepository notificationRepository;
     private final TaskRepository taskRepository;
+    private final SweepExecutor sweepExecutor;
+    private final UnreadCountCache unreadCountCache;
+    private final NotificationStreamBroker streamBroker;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWrites readYourWrites;
 
     @Autowired
-    public NotificationService(NotificationRepository notificationRepository, TaskRepository taskRepository) {
+    public NotificationService(NotificationRepository notificationRepository,
+                               TaskRepository taskRepository,
+                               SweepExecutor sweepExecutor,
+                               UnreadCountCache unreadCountCache,
+                               NotificationStreamBroker streamBroker,
+                               UserStatsService userStatsService,
+                               TransactionTemplate transactionTemplate,
+                               ReadYourWrites readYourWrites) {
         this.notificationRepository = notificationRepository;
         this.taskRepository = taskRepository;
+        this.sweepExecutor = sweepExecutor;
+        this.unreadCountCache = unreadCountCache;
+        this.streamBroker = streamBroker;
+        this.userStatsService = userStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.readYourWrites = readYourWrites;
     }
 
-    public Notification createNotification(Notification notification) {
-        return notificationRepository.save(notification);
-    }
-
-    public Notification createTaskDueNotification(Task task) {
-        // Check if there's already an unread notification for this task
-        if (notificationRepository.existsByTaskAndReadFalse(task)) {
-            return null;
+    /**
+     * Creates due-soon notifications for those of the user's tasks that are still open and due
+     * within the next {@code days} days; used by {@link TaskNotificationWriter} for task events.
+     */
+    public int createTaskDueNotificationsIfDueWithin(Long userId, Collection<Long> taskIds, int days) {
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = sweepTimestamp();
+        int created = notificationRepository.insertDueSoonNotificationsForOpenTasks(now, userId, taskIds,
+                now, now.plusDays(days));
+        if (created > 0) {
+            userStatsService.unreadChanged(userId, created);
+            unreadCountChanged(userId, created, () -> publishCreated(userId, now));
         }
-        
-        String message = String.format("Task '%s' is due soon (due date: %s)", 
-                task.getTitle(), 
-                task.getDueDate().toLocalDate().toString());
-        
-        Notification notification = new Notification(message, task);
-        return notificationRepository.save(notification);
+        return created;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Notification> findById(Long id) {
         return notificationRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Notification> findByUser(User user) {
-        return notificationRepository.findByUser(user);
+        return readYourWrites.readingFor(user.getId(), () -> notificationRepository.findByUser(user));
     }
 
     public long countUnreadNotifications(User user) {
-        return notificationRepository.countUnreadByUser(user);
+        return countUnreadNotifications(user.getId());
     }
 
-    public Notification markAsRead(Long id) {
-        Optional<Notification> notificationOpt = notificationRepository.findById(id);
-        if (notificationOpt.isPresent()) {
-            Notification notification = notificationOpt.get();
-            notification.setRead(true);
-            return notificationRepository.save(notification);
+    // Not read-only: a count loaded from a lagging replica would stay in the cache after the replica caught up
+    public long countUnreadNotifications(Long userId) {
+        return unreadCountCache.get(userId, () -> notificationRepository.countUnreadByUserId(userId));
+    }
+
+    /**
+     * Opens a live notification stream for the user and queues the current unread count as its
+     * first event; returns null when the connection limits are reached.
+     */
+    public SseEmitter openStream(Long userId) {
+        SseEmitter emitter = streamBroker.open(userId);
+        if (emitter != null) {
+            streamBroker.sendUnreadCount(userId, countUnreadNotifications(userId));
         }
-        return null;
+        return emitter;
     }
 
-    @Scheduled(cron = "0 0 9 * * ?") // Run at 9:00 AM every day
-    public void checkTasksDueToday() {
-        // Get tasks due today
-        LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1).minusNanos(1);
-        
-        List<Task> tasksDueToday = taskRepository.findByCompletedFalseAndDueDateBetween(startOfDay, endOfDay);
-        
-        for (Task task : tasksDueToday) {
-            if (!notificationRepository.existsByTaskAndReadFalse(task)) {
-                String message = String.format("Task '%s' is due today!", task.getTitle());
-                Notification notification = new Notification(message, task);
-                notificationRepository.save(notification);
+    // Bulk inserts give all their rows the same createdAt, which is how the new ones are found again
+    private void publishCreated(Long userId, LocalDateTime createdAt) {
+        if (streamBroker.hasSubscribers(userId)) {
+            for (Notification notification : notificationRepository.findUnreadByUserIdAndCreatedAt(userId, createdAt)) {
+                streamBroker.sendNotification(userId, notification);
+            }
+            streamBroker.sendUnreadCount(userId, countUnreadNotifications(userId));
+        }
+    }
+
+    private void publishUnreadCount(Long userId) {
+        if (streamBroker.hasSubscribers(userId)) {
+            streamBroker.sendUnreadCount(userId, countUnreadNotifications(userId));
+        }
+    }
+
+    /**
+     * Applies {@code delta} to the user's cached unread count and then runs {@code publish} once the
+     * surrounding transaction commits; on rollback the cache is left as it was and nothing is pushed.
+     */
+    private void unreadCountChanged(Long userId, int delta, Runnable publish) {
+        readYourWrites.recordWrite(userId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            unreadCountCache.add(userId, delta);
+            publish.run();
+            return;
+        }
+        unreadCountCache.beginChange(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                unreadCountCache.endChange(userId, committed ? delta : 0);
+                if (committed) {
+                    publish.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Marks one of the user's notifications as read with a single ownership-scoped UPDATE.
+     * Returns false when the notification does not exist, belongs to someone else or was already read.
+     */
+    @Transactional
+    public boolean markAsRead(Long id, Long userId) {
+        return applyMarkedRead(userId, notificationRepository.markReadByIdAndUserId(id, userId)) > 0;
+    }
+
+    @Transactional
+    public int markAsRead(Collection<Long> ids, Long userId) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("Cannot mark more than " + MAX_BULK_IDS + " notifications at once");
+        }
+        return applyMarkedRead(userId, notificationRepository.markReadByIdsAndUserId(ids, userId));
+    }
+
+    @Transactional
+    public int markAllAsRead(Long userId) {
+        return applyMarkedRead(userId, notificationRepository.markAllReadByUserId(userId));
+    }
+
+    private int applyMarkedRead(Long userId, int updated) {
+        if (updated > 0) {
+            userStatsService.unreadChanged(userId, -updated);
+            unreadCountChanged(userId, -updated, () -> publishUnreadCount(userId));
+        }
+        return updated;
+    }
+
+    /**
+     * Deletes the notifications of one of the user's tasks; used before deleting the task itself.
+     * The user's cached unread count is dropped once the surrounding transaction commits.
+     */
+    @Transactional
+    public int deleteByTask(Long taskId, Long userId) {
+        int unread = notificationRepository.deleteByTaskIdAndUserIdAndRead(taskId, userId, false);
+        int read = notificationRepository.deleteByTaskIdAndUserIdAndRead(taskId, userId, true);
+        if (unread > 0) {
+            userStatsService.unreadChanged(userId, -unread);
+            evictUnreadCountAfterCommit(userId);
+        }
+        return unread + read;
+    }
+
+    /**
+     * Drops the cached unread count of a user whose notifications were removed in bulk, e.g. by
+     * deleting one of their tasks.
+     */
+    public void evictUnreadCount(Long userId) {
+        unreadCountCache.evict(userId);
+        publishUnreadCount(userId);
+    }
+
+    private void evictUnreadCountAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictUnreadCount(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictUnreadCount(userId);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.unread-cache.reconcile-interval-ms:300000}")
+    public void reconcileUnreadCounts() {
+        List<Long> userIds = unreadCountCache.cachedUserIds();
+        for (int i = 0; i < userIds.size(); i += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(i, Math.min(i + RECONCILE_BATCH_SIZE, userIds.size()));
+            long generation = unreadCountCache.generation();
+            Map<Long, Long> counts = new HashMap<>();
+            batch.forEach(userId -> counts.put(userId, 0L));
+            for (UserUnreadCount row : notificationRepository.countUnreadByUserIds(batch)) {
+                counts.put(row.getUserId(), row.getUnread());
+            }
+            if (!unreadCountCache.reconcile(counts, generation)) {
+                // A write raced with the count; drop the batch so the next read reloads it
+                batch.forEach(unreadCountCache::evict);
             }
         }
     }
 
-    @Scheduled(cron = "0 0 9 * * *") // Run at 9:00 AM every day
+    // Full-table sweeps, off by default since DueDateScheduler fires each task's notifications at its
+    // own time. Due-today runs first so due-soon skips tasks it already notified.
+    @Scheduled(cron = "${notifications.sweep.cron:-}")
+    public void runDailySweeps() {
+        checkTasksDueToday();
+        checkTasksDueSoon();
+    }
+
+    public void checkTasksDueToday() {
+        sweepTasksDueToday();
+    }
+
     public void checkTasksDueSoon() {
-        List<Task> tasksDueSoon = taskRepository.findByCompletedFalseAndDueDateBetween(
-                LocalDateTime.now(),
-                LocalDateTime.now().plusDays(3)
-        );
-        
-        for (Task task : tasksDueSoon) {
-            if (!notificationRepository.existsByTaskAndReadFalse(task)) {
-                createTaskDueNotification(task);
+        sweepTasksDueSoon();
+    }
+
+    // Sweeps insert notifications for many users at once, so cached counts are dropped afterwards
+    public SweepResult sweepTasksDueToday() {
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        LocalDateTime endOfDay = startOfDay.plusDays(1).minusNanos(1);
+        LocalDateTime createdAt = sweepTimestamp();
+        SweepResult result = sweepExecutor.execute("due-today", taskRepository.findOpenTaskIdRange(startOfDay, endOfDay),
+                (fromId, toId) -> withStats(createdAt, fromId, toId,
+                        () -> notificationRepository.insertDueTodayNotifications(startOfDay, endOfDay, createdAt, fromId, toId)));
+        readYourWrites.recordWriteForAll();
+        unreadCountCache.clear();
+        streamBroker.subscribedUserIds().forEach(userId -> publishCreated(userId, createdAt));
+        return result;
+    }
+
+    public SweepResult sweepTasksDueSoon() {
+        LocalDateTime now = sweepTimestamp();
+        LocalDateTime threshold = now.plusDays(3);
+        SweepResult result = sweepExecutor.execute("due-soon", taskRepository.findOpenTaskIdRange(now, threshold),
+                (fromId, toId) -> withStats(now, fromId, toId,
+                        () -> notificationRepository.insertDueSoonNotifications(now, threshold, now, fromId, toId)));
+        readYourWrites.recordWriteForAll();
+        unreadCountCache.clear();
+        streamBroker.subscribedUserIds().forEach(userId -> publishCreated(userId, now));
+        return result;
+    }
+
+    /**
+     * Creates due-today notifications for tasks whose timers fired; tasks completed, moved to
+     * another day or already holding an unread notification are skipped by the insert itself.
+     */
+    public int notifyTasksDueToday(Collection<Long> taskIds, Collection<Long> userIds) {
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        LocalDateTime endOfDay = startOfDay.plusDays(1).minusNanos(1);
+        LocalDateTime createdAt = sweepTimestamp();
+        return notifyTasks(createdAt, taskIds, userIds,
+                () -> notificationRepository.insertDueTodayNotificationsForTaskIds(startOfDay, endOfDay, createdAt, taskIds));
+    }
+
+    // Due-soon counterpart of notifyTasksDueToday for tasks falling due within the next {@code lead}
+    public int notifyTasksDueSoon(Collection<Long> taskIds, Collection<Long> userIds, Duration lead) {
+        LocalDateTime now = sweepTimestamp();
+        LocalDateTime threshold = now.plus(lead);
+        return notifyTasks(now, taskIds, userIds,
+                () -> notificationRepository.insertDueSoonNotificationsForTaskIds(now, threshold, now, taskIds));
+    }
+
+    private int notifyTasks(LocalDateTime createdAt, Collection<Long> taskIds, Collection<Long> userIds, IntSupplier insert) {
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        long fromId = Collections.min(taskIds);
+        long toId = Collections.max(taskIds);
+        int inserted = withStats(createdAt, fromId, toId, insert);
+        if (inserted > 0) {
+            for (Long userId : userIds) {
+                readYourWrites.recordWrite(userId);
+                unreadCountCache.evict(userId);
+                publishCreated(userId, createdAt);
             }
         }
+        return inserted;
+    }
+
+    // Bulk-inserted rows are identified by their createdAt, so it must survive the column's microsecond precision
+    private static LocalDateTime sweepTimestamp() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    // Runs a sweep chunk's insert and the matching user_stats update in one transaction
+    private int withStats(LocalDateTime createdAt, long fromId, long toId, IntSupplier insert) {
+        Integer inserted = transactionTemplate.execute(status -> {
+            int rows = insert.getAsInt();
+            if (rows > 0) {
+                userStatsService.sweepNotificationsAdded(createdAt, fromId, toId);
+            }
+            return rows;
+        });
+        return inserted == null ? 0 : inserted;
+    }
+
+    public Collection<SweepProgress> getSweepProgress() {
+        return sweepExecutor.getProgress();
     }
 }
@@ -0,0 +1,170 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.Notification;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the open Server-Sent Events connections per user and pushes notification events to them.
+ * Sends happen on a dedicated thread so a slow client never blocks the thread that created or read
+ * the notification, and events reach each client in publication order.
+ *
+ * <p>When the send queue is full the oldest pending send is dropped. A dropped unread-count event is
+ * made up for by the next one, which carries the full current value; a dropped notification event is
+ * lost to that stream, though the notification is still listed and counted. Heartbeats go out as a
+ * single send covering every stream, so a heartbeat round displaces at most one pending event.
+ */
+@Component
+public class NotificationStreamBroker {
+
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+    public static final String NOTIFICATION_EVENT = "notification";
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamBroker.class);
+
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor sender;
+
+    @Autowired
+    public NotificationStreamBroker(@Value("${notifications.stream.max-connections:1000}") int maxConnections,
+                                    @Value("${notifications.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+                                    @Value("${notifications.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.timeoutMs = timeoutMs;
+        this.sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-stream");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    /**
+     * Opens a stream for the user, or returns null when the global or per-user connection limit is reached.
+     */
+    public SseEmitter open(Long userId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        boolean[] accepted = new boolean[1];
+        emitters.compute(userId, (id, list) -> {
+            List<SseEmitter> userEmitters = list != null ? list : new CopyOnWriteArrayList<>();
+            if (userEmitters.size() < maxConnectionsPerUser) {
+                userEmitters.add(emitter);
+                accepted[0] = true;
+            }
+            return userEmitters;
+        });
+        if (!accepted[0]) {
+            connections.decrementAndGet();
+            return null;
+        }
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+        return emitter;
+    }
+
+    public boolean hasSubscribers(Long userId) {
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        return userEmitters != null && !userEmitters.isEmpty();
+    }
+
+    public Set<Long> subscribedUserIds() {
+        return emitters.keySet();
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    public void sendUnreadCount(Long userId, long count) {
+        send(userId, () -> SseEmitter.event().name(UNREAD_COUNT_EVENT).data(count));
+    }
+
+    public void sendNotification(Long userId, Notification notification) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", notification.getId());
+        payload.put("message", notification.getMessage());
+        payload.put("createdAt", notification.getCreatedAt());
+        send(userId, () -> SseEmitter.event().name(NOTIFICATION_EVENT).data(payload));
+    }
+
+    /**
+     * Sends a comment line to every open stream so proxies keep the connection open and dead
+     * clients are detected and removed.
+     */
+    @Scheduled(fixedRateString = "${notifications.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> emitters.forEach((userId, userEmitters) ->
+                deliver(userId, userEmitters, () -> SseEmitter.event().comment("heartbeat"))));
+    }
+
+    // Events are built per emitter: a builder appends another line break each time it is sent
+    private void send(Long userId, Supplier<SseEmitter.SseEventBuilder> event) {
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters == null || userEmitters.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> deliver(userId, userEmitters, event));
+    }
+
+    private void deliver(Long userId, List<SseEmitter> userEmitters, Supplier<SseEmitter.SseEventBuilder> event) {
+        for (SseEmitter emitter : userEmitters) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping notification stream for user {}: {}", userId, e.getMessage());
+                emitter.completeWithError(e);
+                remove(userId, emitter);
+            }
+        }
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, list) -> {
+            if (list.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        emitters.values().forEach(list -> list.forEach(SseEmitter::complete));
+        emitters.clear();
+    }
+}
@@ -0,0 +1,103 @@
+package com.fst.dmi.monolith.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps reads of recently changed data on the primary while a read replica is in use: once a
+ * change to a user's tasks or notifications commits, read-only transactions reading that user's data
+ * use the primary for the next {@code datasource.replica.max-lag}.
+ *
+ * <p>The services name the user in both cases: writes with {@link #recordWrite}, whoever made them
+ * (task events and due-date timers run without a logged-in user), and reads with {@link #readingFor}.
+ * Sweeps change many users at once and send everyone's reads to the primary. Without a replica
+ * nothing is recorded.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final boolean enabled;
+    private final long windowMillis;
+
+    // Users whose data changed recently, with the time until which their reads stay on the primary
+    private final Map<Long, Long> recentWriters = new ConcurrentHashMap<>();
+    private volatile long everyoneUntil;
+    private final ThreadLocal<Long> reader = new ThreadLocal<>();
+
+    @Autowired
+    public ReadYourWrites(@Value("${datasource.replica.url:}") String replicaUrl,
+                          @Value("${datasource.replica.max-lag:2s}") Duration maxLag) {
+        this.enabled = !replicaUrl.isEmpty();
+        this.windowMillis = maxLag.toMillis();
+    }
+
+    // Takes effect when the surrounding transaction commits
+    public void recordWrite(Long userId) {
+        if (enabled) {
+            afterCommit(() -> recentWriters.put(userId, System.currentTimeMillis() + windowMillis));
+        }
+    }
+
+    public void recordWriteForAll() {
+        if (enabled) {
+            afterCommit(() -> everyoneUntil = System.currentTimeMillis() + windowMillis);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs a read of the user's data; connections it takes for read-only transactions use the
+     * primary if the user's data changed recently.
+     */
+    public <T> T readingFor(Long userId, Supplier<T> read) {
+        Long previous = reader.get();
+        reader.set(userId);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                reader.remove();
+            } else {
+                reader.set(previous);
+            }
+        }
+    }
+
+    public boolean mustReadPrimary() {
+        long now = System.currentTimeMillis();
+        if (everyoneUntil > now) {
+            return true;
+        }
+        Long userId = reader.get();
+        if (userId == null) {
+            return false;
+        }
+        Long until = recentWriters.get(userId);
+        return until != null && until > now;
+    }
+
+    public void expire() {
+        long now = System.currentTimeMillis();
+        recentWriters.values().removeIf(until -> until <= now);
+    }
+}
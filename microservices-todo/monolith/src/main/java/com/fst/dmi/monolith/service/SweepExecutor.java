@@ -0,0 +1,155 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.repository.TaskIdRange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a sweep over the tasks table by splitting its id range into fixed-size chunks and executing
+ * them concurrently on a bounded pool. Each chunk is a single statement in its own transaction, so a
+ * failing chunk does not roll back the others.
+ */
+@Component
+public class SweepExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(SweepExecutor.class);
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final ThreadPoolExecutor pool;
+    private final Map<String, SweepProgress> progress = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public SweepExecutor(@Value("${notifications.sweep.chunk-size:1000}") int chunkSize,
+                         @Value("${notifications.sweep.parallelism:4}") int parallelism,
+                         MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded queue with caller-runs: the scheduling thread slows down instead of queueing every chunk
+        this.pool = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.parallelism * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sweep-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public SweepResult execute(String name, TaskIdRange range, ChunkOperation operation) {
+        List<long[]> chunks = partition(range);
+        SweepProgress sweepProgress = new SweepProgress(name, chunks.size());
+        progress.put(name, sweepProgress);
+
+        List<Future<?>> futures = new ArrayList<>(chunks.size());
+        for (long[] chunk : chunks) {
+            futures.add(pool.submit(() -> runChunk(name, chunk, operation, sweepProgress)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // runChunk records its own failures; nothing else can be thrown here
+            }
+        }
+
+        SweepResult result = sweepProgress.finish();
+        log.info("Notification sweep finished: {}", result);
+        record(result);
+        return result;
+    }
+
+    private void record(SweepResult result) {
+        Timer.builder("notifications.sweep.duration")
+                .description("Wall-clock time of a notification sweep")
+                .tag("sweep", result.getName())
+                .tag("outcome", result.getFailedChunks() == 0 ? "success" : "partial")
+                .register(meterRegistry)
+                .record(result.getDuration());
+        Counter.builder("notifications.sweep.rows")
+                .description("Notifications inserted by sweeps")
+                .tag("sweep", result.getName())
+                .register(meterRegistry)
+                .increment(result.getRowsInserted());
+        Counter.builder("notifications.sweep.chunks")
+                .tag("sweep", result.getName())
+                .tag("outcome", "success")
+                .register(meterRegistry)
+                .increment(result.getChunks());
+        Counter.builder("notifications.sweep.chunks")
+                .tag("sweep", result.getName())
+                .tag("outcome", "failure")
+                .register(meterRegistry)
+                .increment(result.getFailedChunks());
+    }
+
+    private void runChunk(String name, long[] chunk, ChunkOperation operation, SweepProgress sweepProgress) {
+        try {
+            sweepProgress.chunkCompleted(operation.apply(chunk[0], chunk[1]));
+        } catch (RuntimeException e) {
+            sweepProgress.chunkFailed();
+            log.error("Notification sweep {} failed for task ids {}-{}", name, chunk[0], chunk[1], e);
+        }
+    }
+
+    private List<long[]> partition(TaskIdRange range) {
+        List<long[]> chunks = new ArrayList<>();
+        if (range == null || range.getMinId() == null) {
+            return chunks;
+        }
+        for (long fromId = range.getMinId(); fromId <= range.getMaxId(); fromId += chunkSize) {
+            chunks.add(new long[] {fromId, Math.min(fromId + chunkSize - 1, range.getMaxId())});
+        }
+        return chunks;
+    }
+
+    public Collection<SweepProgress> getProgress() {
+        return progress.values();
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @FunctionalInterface
+    public interface ChunkOperation {
+        /**
+         * Processes tasks with ids in {@code [fromId, toId]} and returns the number of rows written.
+         */
+        int apply(long fromId, long toId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.fst.dmi.monolith.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live progress of a running (or the last finished) sweep. Updated concurrently by the chunk workers.
+ */
+public class SweepProgress {
+
+    private final String name;
+    private final int totalChunks;
+    private final LocalDateTime startedAt;
+    private final long startedNanos;
+    private final AtomicInteger completedChunks = new AtomicInteger();
+    private final AtomicInteger failedChunks = new AtomicInteger();
+    private final AtomicInteger rowsInserted = new AtomicInteger();
+    private volatile LocalDateTime finishedAt;
+
+    public SweepProgress(String name, int totalChunks) {
+        this.name = name;
+        this.totalChunks = totalChunks;
+        this.startedAt = LocalDateTime.now();
+        this.startedNanos = System.nanoTime();
+    }
+
+    void chunkCompleted(int rows) {
+        rowsInserted.addAndGet(rows);
+        completedChunks.incrementAndGet();
+    }
+
+    void chunkFailed() {
+        failedChunks.incrementAndGet();
+    }
+
+    SweepResult finish() {
+        finishedAt = LocalDateTime.now();
+        return new SweepResult(name, rowsInserted.get(), completedChunks.get(), failedChunks.get(),
+                Duration.ofNanos(System.nanoTime() - startedNanos));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTotalChunks() {
+        return totalChunks;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks.get();
+    }
+
+    public int getFailedChunks() {
+        return failedChunks.get();
+    }
+
+    public int getRowsInserted() {
+        return rowsInserted.get();
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isRunning() {
+        return finishedAt == null;
+    }
+
+    public int getPercentComplete() {
+        if (totalChunks == 0) {
+            return 100;
+        }
+        return (completedChunks.get() + failedChunks.get()) * 100 / totalChunks;
+    }
+}
@@ -0,0 +1,54 @@
+package com.fst.dmi.monolith.service;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one notification sweep.
+ */
+public class SweepResult {
+
+    private final String name;
+    private final int rowsInserted;
+    private final int chunks;
+    private final int failedChunks;
+    private final Duration duration;
+
+    public SweepResult(String name, int rowsInserted, int chunks, int failedChunks, Duration duration) {
+        this.name = name;
+        this.rowsInserted = rowsInserted;
+        this.chunks = chunks;
+        this.failedChunks = failedChunks;
+        this.duration = duration;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRowsInserted() {
+        return rowsInserted;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public int getFailedChunks() {
+        return failedChunks;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return "SweepResult{" +
+                "name='" + name + '\'' +
+                ", rowsInserted=" + rowsInserted +
+                ", chunks=" + chunks +
+                ", failedChunks=" + failedChunks +
+                ", duration=" + duration.toMillis() + "ms" +
+                '}';
+    }
+}
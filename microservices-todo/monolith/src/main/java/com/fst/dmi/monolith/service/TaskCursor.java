@@ -0,0 +1,62 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in a user's task list, ordered by due date (undated tasks last) then id.
+ */
+public class TaskCursor {
+
+    private static final String NO_DUE_DATE = "-";
+
+    private final LocalDateTime dueDate;
+    private final Long id;
+
+    public TaskCursor(LocalDateTime dueDate, Long id) {
+        this.dueDate = dueDate;
+        this.id = id;
+    }
+
+    public static TaskCursor of(Task task) {
+        return new TaskCursor(task.getDueDate(), task.getId());
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = (dueDate != null ? dueDate.toString() : NO_DUE_DATE) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns null when the value is missing or malformed, which callers treat as the first page.
+     */
+    public static TaskCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                return null;
+            }
+            String dueDatePart = raw.substring(0, separator);
+            LocalDateTime dueDate = NO_DUE_DATE.equals(dueDatePart) ? null : LocalDateTime.parse(dueDatePart);
+            return new TaskCursor(dueDate, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.TaskEvent;
+
+import java.util.List;
+
+/**
+ * Consumer of task events delivered by {@link TaskEventPipeline}. Batches arrive in id order on the
+ * pipeline thread, inside the transaction that removes them from the outbox; delivery is
+ * at-least-once, so a batch may be seen again after a failure or restart.
+ */
+public interface TaskEventListener {
+
+    void onTaskEvents(List<TaskEvent> events);
+}
@@ -0,0 +1,255 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.TaskEvent;
+import com.fst.dmi.monolith.repository.TaskEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process delivery of task events to the {@link TaskEventListener}s, off the request thread.
+ *
+ * <p>{@link #publish} writes the event to the task_events outbox in the caller's transaction and,
+ * once that commits, offers its id to a bounded queue. A single consumer thread drains the queue in
+ * batches; each batch is handed to the listeners and deleted from the outbox in one transaction.
+ * When the queue is full the id is dropped and the consumer falls back to reading the outbox table,
+ * so a burst never blocks or fails a request. The outbox is also read back at startup, which
+ * replays events left undelivered by the previous run.
+ *
+ * <p>A failed batch is retried one event at a time; an event that fails {@code max-attempts} times
+ * stays in the table and is no longer picked up.
+ */
+@Component
+public class TaskEventPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskEventPipeline.class);
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final TaskEventRepository taskEventRepository;
+    private final List<TaskEventListener> listeners;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Long> queue;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long idleScanMillis;
+
+    // Set when ids may be in the outbox without being in the queue
+    private final AtomicBoolean backlog = new AtomicBoolean(true);
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    @Autowired
+    public TaskEventPipeline(TaskEventRepository taskEventRepository,
+                             List<TaskEventListener> listeners,
+                             ReadYourWrites readYourWrites,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${tasks.events.queue-capacity:10000}") int queueCapacity,
+                             @Value("${tasks.events.batch-size:200}") int batchSize,
+                             @Value("${tasks.events.max-attempts:5}") int maxAttempts,
+                             @Value("${tasks.events.idle-scan-ms:30000}") long idleScanMillis) {
+        this.taskEventRepository = taskEventRepository;
+        this.listeners = listeners;
+        this.readYourWrites = readYourWrites;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.idleScanMillis = Math.max(100, idleScanMillis);
+    }
+
+    /**
+     * Records an event in the outbox as part of the current transaction; it is queued for delivery
+     * only if that transaction commits. Every task change is published, so this is also where the
+     * change is recorded for {@link ReadYourWrites}.
+     */
+    public void publish(TaskEvent.Type type, Long taskId, Long userId) {
+        Long id = taskEventRepository.save(new TaskEvent(type, taskId, userId)).getId();
+        published.incrementAndGet();
+        readYourWrites.recordWrite(userId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(id);
+            }
+        });
+    }
+
+    private void enqueue(Long id) {
+        if (!queue.offer(id)) {
+            overflowed.incrementAndGet();
+            backlog.set(true);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::consume, "task-events");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (consumer == null) {
+            return;
+        }
+        consumer.interrupt();
+        try {
+            // Whatever is still queued stays in the outbox and is replayed on the next start
+            consumer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consume() {
+        long backoff = 0;
+        while (running) {
+            try {
+                if (backoff > 0) {
+                    Thread.sleep(backoff);
+                }
+                if (backlog.getAndSet(false)) {
+                    drainOutbox();
+                }
+                Long first = queue.poll(idleScanMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // Idle: pick up events waiting for a retry
+                    backlog.set(true);
+                    continue;
+                }
+                List<Long> ids = new ArrayList<>(batchSize);
+                ids.add(first);
+                queue.drainTo(ids, batchSize - 1);
+                deliver(ids);
+                backoff = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Task event delivery failed; retrying from the outbox", e);
+                backlog.set(true);
+                backoff = Math.min(MAX_BACKOFF_MS, Math.max(1000, backoff * 2));
+            }
+        }
+    }
+
+    // Reads undelivered events straight from the table until it is empty or a batch makes no progress
+    private void drainOutbox() {
+        while (running) {
+            List<TaskEvent> pending = taskEventRepository.findByAttemptsLessThanOrderByIdAsc(maxAttempts,
+                    PageRequest.of(0, batchSize));
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Long> ids = pending.stream().map(TaskEvent::getId).toList();
+            if (deliver(ids) == 0 || pending.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Delivers the events with the given ids that are still in the outbox; ids delivered earlier
+     * (e.g. by an outbox scan) are skipped. Returns the number of events delivered.
+     */
+    private int deliver(List<Long> ids) {
+        try {
+            return deliverInTransaction(ids);
+        } catch (RuntimeException e) {
+            if (ids.size() == 1) {
+                recordFailure(ids.get(0), e);
+                return 0;
+            }
+            log.warn("Task event batch of {} failed; delivering its events one by one", ids.size(), e);
+        }
+        int delivered = 0;
+        for (Long id : ids) {
+            try {
+                delivered += deliverInTransaction(List.of(id));
+            } catch (RuntimeException e) {
+                recordFailure(id, e);
+            }
+        }
+        return delivered;
+    }
+
+    private int deliverInTransaction(List<Long> ids) {
+        Integer delivered = transactionTemplate.execute(status -> {
+            List<TaskEvent> events = taskEventRepository.findByIdInOrderByIdAsc(ids);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            for (TaskEventListener listener : listeners) {
+                listener.onTaskEvents(events);
+            }
+            return taskEventRepository.deleteByIds(events.stream().map(TaskEvent::getId).toList());
+        });
+        int count = delivered == null ? 0 : delivered;
+        processed.addAndGet(count);
+        return count;
+    }
+
+    private void recordFailure(Long id, RuntimeException e) {
+        failed.incrementAndGet();
+        taskEventRepository.incrementAttempts(id);
+        log.error("Task event {} could not be delivered", id, e);
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getProcessedCount() {
+        return processed.get();
+    }
+
+    public long getOverflowCount() {
+        return overflowed.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getDeadLetterCount() {
+        return taskEventRepository.countByAttemptsGreaterThanEqual(maxAttempts);
+    }
+}
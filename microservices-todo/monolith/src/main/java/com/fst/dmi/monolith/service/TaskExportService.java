@@ -0,0 +1,169 @@
+package com.fst.dmi.monolith.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fst.dmi.monolith.model.Task;
+import com.fst.dmi.monolith.repository.NotificationExportRow;
+import com.fst.dmi.monolith.repository.NotificationRepository;
+import com.fst.dmi.monolith.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's tasks straight from a database cursor to the response. Each task is detached
+ * once written, so memory use does not grow with the number of tasks. NDJSON output can nest each
+ * task's notifications; they come from a second cursor in task id order that is merged with the
+ * task cursor. CSV output uses the columns the import reads, plus id and createdAt.
+ */
+@Service
+public class TaskExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final TaskRepository taskRepository;
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadYourWrites readYourWrites;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public TaskExportService(TaskRepository taskRepository,
+                             NotificationRepository notificationRepository,
+                             PlatformTransactionManager transactionManager,
+                             ReadYourWrites readYourWrites,
+                             ObjectMapper objectMapper) {
+        this.taskRepository = taskRepository;
+        this.notificationRepository = notificationRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readYourWrites = readYourWrites;
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(Long userId, TaskImportFormat format, boolean includeNotifications, OutputStream out) {
+        readYourWrites.readingFor(userId, () -> {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try {
+                    if (format == TaskImportFormat.CSV) {
+                        exportCsv(userId, out);
+                    } else {
+                        exportNdjson(userId, includeNotifications, out);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return null;
+        });
+    }
+
+    private void exportNdjson(Long userId, boolean includeNotifications, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+        try (Stream<Task> tasks = taskRepository.streamByUserId(userId);
+             Stream<NotificationExportRow> notifications = includeNotifications
+                     ? notificationRepository.streamExportRowsByUserId(userId) : Stream.empty()) {
+            Iterator<NotificationExportRow> notificationIterator = notifications.iterator();
+            NotificationExportRow pending = notificationIterator.hasNext() ? notificationIterator.next() : null;
+            int written = 0;
+            for (Iterator<Task> it = tasks.iterator(); it.hasNext(); ) {
+                Task task = it.next();
+                json.writeStartObject();
+                json.writeNumberField("id", task.getId());
+                json.writeStringField("title", task.getTitle());
+                json.writeStringField("description", task.getDescription());
+                json.writeStringField("dueDate", format(task.getDueDate()));
+                json.writeBooleanField("completed", task.isCompleted());
+                json.writeStringField("createdAt", format(task.getCreatedAt()));
+                if (includeNotifications) {
+                    // Both cursors are ordered by task id; skip rows of tasks created after the task cursor opened
+                    while (pending != null && pending.getTaskId() < task.getId()) {
+                        pending = notificationIterator.hasNext() ? notificationIterator.next() : null;
+                    }
+                    json.writeArrayFieldStart("notifications");
+                    while (pending != null && pending.getTaskId().equals(task.getId())) {
+                        json.writeStartObject();
+                        json.writeNumberField("id", pending.getId());
+                        json.writeStringField("message", pending.getMessage());
+                        json.writeStringField("createdAt", format(pending.getCreatedAt()));
+                        json.writeBooleanField("read", pending.isRead());
+                        json.writeEndObject();
+                        pending = notificationIterator.hasNext() ? notificationIterator.next() : null;
+                    }
+                    json.writeEndArray();
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                entityManager.detach(task);
+                if (++written % FLUSH_EVERY == 1) {
+                    json.flush();
+                }
+            }
+        }
+        json.flush();
+    }
+
+    private void exportCsv(Long userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,title,description,dueDate,completed,createdAt\n");
+        try (Stream<Task> tasks = taskRepository.streamByUserId(userId)) {
+            int written = 0;
+            for (Iterator<Task> it = tasks.iterator(); it.hasNext(); ) {
+                Task task = it.next();
+                writer.write(String.valueOf(task.getId()));
+                writer.write(',');
+                writer.write(csv(task.getTitle()));
+                writer.write(',');
+                writer.write(csv(task.getDescription()));
+                writer.write(',');
+                writer.write(nullToEmpty(format(task.getDueDate())));
+                writer.write(',');
+                writer.write(String.valueOf(task.isCompleted()));
+                writer.write(',');
+                writer.write(nullToEmpty(format(task.getCreatedAt())));
+                writer.write('\n');
+                entityManager.detach(task);
+                if (++written % FLUSH_EVERY == 1) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static String format(LocalDateTime value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,218 @@
+package com.fst.dmi.monolith.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fst.dmi.monolith.model.Task;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads tasks one row at a time from a CSV or NDJSON stream, so an import never holds more than
+ * the current row in memory. CSV input needs a header row naming the columns {@code title},
+ * {@code description}, {@code dueDate} and {@code completed}; only {@code title} is required.
+ * NDJSON input holds one object per line with the same field names.
+ */
+class TaskImportReader implements Closeable {
+
+    static final int MAX_TITLE_LENGTH = 255;
+    static final int MAX_DESCRIPTION_LENGTH = 1000;
+
+    private final BufferedReader reader;
+    private final TaskImportFormat format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> csvColumns;
+    private int lineNumber;
+
+    TaskImportReader(InputStream in, TaskImportFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the next task, or null at the end of the input. A malformed row throws
+     * IllegalArgumentException and is skipped, so reading can continue with the next row. A CSV
+     * header without a title column throws IllegalStateException.
+     */
+    Task next() throws IOException {
+        return format == TaskImportFormat.CSV ? nextCsv() : nextNdjson();
+    }
+
+    /** Line on which the row last returned or rejected by {@link #next()} ends. */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Task nextNdjson() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("invalid JSON");
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        return toTask(text(node, "title"), text(node, "description"), text(node, "dueDate"), text(node, "completed"));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private Task nextCsv() throws IOException {
+        if (csvColumns == null) {
+            List<String> header = readCsvRecord();
+            if (header == null) {
+                return null;
+            }
+            csvColumns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                csvColumns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+            }
+            if (!csvColumns.containsKey("title")) {
+                // Not a row error: without the column no row can be read, so the import is abandoned
+                throw new IllegalStateException("CSV header must contain a title column");
+            }
+        }
+
+        List<String> record;
+        do {
+            record = readCsvRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        return toTask(column(record, "title"), column(record, "description"),
+                column(record, "duedate"), column(record, "completed"));
+    }
+
+    private String column(List<String> record, String name) {
+        Integer index = csvColumns.get(name);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    // RFC 4180 record: quoted fields may contain commas, doubled quotes and line breaks
+    private List<String> readCsvRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        lineNumber++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Task toTask(String title, String description, String dueDate, String completed) {
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("title is required");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("title is longer than " + MAX_TITLE_LENGTH + " characters");
+        }
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("description is longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+
+        Task task = new Task();
+        task.setTitle(title.trim());
+        task.setDescription(description == null || description.isBlank() ? null : description);
+        task.setDueDate(parseDueDate(dueDate));
+        task.setCompleted(parseCompleted(completed));
+        return task;
+    }
+
+    // Accepts an ISO date-time, or an ISO date meaning the start of that day
+    private static LocalDateTime parseDueDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return trimmed.length() == 10 ? LocalDate.parse(trimmed).atStartOfDay() : LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid dueDate '" + trimmed + "'");
+        }
+    }
+
+    private static boolean parseCompleted(String value) {
+        if (value == null || value.isBlank()) {
+            return false;
+        }
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.equals("true") || trimmed.equals("1") || trimmed.equals("yes")) {
+            return true;
+        }
+        if (trimmed.equals("false") || trimmed.equals("0") || trimmed.equals("no")) {
+            return false;
+        }
+        throw new IllegalArgumentException("invalid completed value '" + value.trim() + "'");
+    }
+}
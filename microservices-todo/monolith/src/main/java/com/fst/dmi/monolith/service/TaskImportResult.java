@@ -0,0 +1,78 @@
+package com.fst.dmi.monolith.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one bulk task import. Only the first {@link #MAX_REPORTED_ERRORS} rejected rows are
+ * described; {@link #getRejected()} counts all of them.
+ */
+public class TaskImportResult {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private int imported;
+    private int rejected;
+    private int batches;
+    private boolean truncated;
+    private Duration duration = Duration.ZERO;
+    private final List<String> errors = new ArrayList<>();
+
+    void addBatch(int size) {
+        imported += size;
+        batches++;
+    }
+
+    void reject(int lineNumber, String reason) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("line " + lineNumber + ": " + reason);
+        }
+    }
+
+    void markTruncated() {
+        truncated = true;
+    }
+
+    void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    /** True when the input had more rows than the import limit allows; the rest were not read. */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public long getDurationMs() {
+        return duration.toMillis();
+    }
+
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "TaskImportResult{" +
+                "imported=" + imported +
+                ", rejected=" + rejected +
+                ", batches=" + batches +
+                ", truncated=" + truncated +
+                ", duration=" + duration.toMillis() + "ms" +
+                '}';
+    }
+}
@@ -0,0 +1,113 @@
+package com.fst.dmi.monolith.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fst.dmi.monolith.model.Task;
+import com.fst.dmi.monolith.model.TaskEvent;
+import com.fst.dmi.monolith.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk task import. Rows are validated as they are read and written in batches, each in its own
+ * transaction, so a large import neither buffers the whole input nor holds one long transaction.
+ * Rows in batches that were already committed stay imported if a later batch fails.
+ *
+ * <p>Each imported task gets a CREATED event in its batch's transaction, so due-soon notifications
+ * and the search index follow through the task event pipeline as for a single created task.
+ */
+@Service
+public class TaskImportService {
+
+    private final TaskEventPipeline taskEventPipeline;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxRows;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public TaskImportService(TaskEventPipeline taskEventPipeline,
+                             UserStatsService userStatsService,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${tasks.import.batch-size:500}") int batchSize,
+                             @Value("${tasks.import.max-rows:50000}") int maxRows) {
+        this.taskEventPipeline = taskEventPipeline;
+        this.userStatsService = userStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRows = maxRows;
+    }
+
+    public TaskImportResult importTasks(Long userId, InputStream in, TaskImportFormat format) throws IOException {
+        long started = System.nanoTime();
+        TaskImportResult result = new TaskImportResult();
+        List<Task> batch = new ArrayList<>(batchSize);
+        int accepted = 0;
+
+        try (TaskImportReader reader = new TaskImportReader(in, format, objectMapper)) {
+            while (true) {
+                Task task;
+                try {
+                    task = reader.next();
+                } catch (IllegalArgumentException e) {
+                    result.reject(reader.getLineNumber(), e.getMessage());
+                    continue;
+                }
+                if (task == null) {
+                    break;
+                }
+                if (accepted == maxRows) {
+                    result.markTruncated();
+                    break;
+                }
+                accepted++;
+                batch.add(task);
+                if (batch.size() == batchSize) {
+                    persistBatch(userId, batch, result);
+                }
+            }
+            if (!batch.isEmpty()) {
+                persistBatch(userId, batch, result);
+            }
+        }
+
+        result.setDuration(Duration.ofNanos(System.nanoTime() - started));
+        return result;
+    }
+
+    private void persistBatch(Long userId, List<Task> batch, TaskImportResult result) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = entityManager.getReference(User.class, userId);
+            int completed = 0;
+            for (Task task : batch) {
+                task.setUser(user);
+                entityManager.persist(task);
+                taskEventPipeline.publish(TaskEvent.Type.CREATED, task.getId(), userId);
+                if (task.isCompleted()) {
+                    completed++;
+                }
+            }
+            // Flush the task and outbox inserts as JDBC batches before the persistence context is cleared
+            entityManager.flush();
+            userStatsService.tasksAdded(userId, batch.size() - completed, completed);
+            entityManager.clear();
+        });
+        result.addBatch(batch.size());
+        batch.clear();
+    }
+}
@@ -0,0 +1,42 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.TaskEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates the due-soon notifications for newly created or edited tasks, one INSERT ... SELECT per
+ * user and event batch. Whether a task is due soon is decided from its current row, so events for
+ * tasks completed or deleted in the meantime create nothing, and a replayed event does not create
+ * a second unread notification.
+ */
+@Component
+public class TaskNotificationWriter implements TaskEventListener {
+
+    static final int DUE_SOON_DAYS = 7;
+
+    private final NotificationService notificationService;
+
+    @Autowired
+    public TaskNotificationWriter(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @Override
+    public void onTaskEvents(List<TaskEvent> events) {
+        Map<Long, Set<Long>> taskIdsByUser = new LinkedHashMap<>();
+        for (TaskEvent event : events) {
+            if (event.getType() == TaskEvent.Type.CREATED || event.getType() == TaskEvent.Type.UPDATED) {
+                taskIdsByUser.computeIfAbsent(event.getUserId(), userId -> new LinkedHashSet<>()).add(event.getTaskId());
+            }
+        }
+        taskIdsByUser.forEach((userId, taskIds) ->
+                notificationService.createTaskDueNotificationsIfDueWithin(userId, taskIds, DUE_SOON_DAYS));
+    }
+}
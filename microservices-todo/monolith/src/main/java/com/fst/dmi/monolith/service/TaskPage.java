@@ -0,0 +1,51 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.Task;
+
+import java.util.List;
+
+public class TaskPage {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private final List<Task> tasks;
+    private final int size;
+    private final boolean hasPrevious;
+    private final boolean hasNext;
+
+    public TaskPage(List<Task> tasks, int size, boolean hasPrevious, boolean hasNext) {
+        this.tasks = tasks;
+        this.size = size;
+        this.hasPrevious = hasPrevious && !tasks.isEmpty();
+        this.hasNext = hasNext && !tasks.isEmpty();
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public String getPreviousCursor() {
+        return hasPrevious ? TaskCursor.of(tasks.get(0)).encode() : null;
+    }
+
+    public String getNextCursor() {
+        return hasNext ? TaskCursor.of(tasks.get(tasks.size() - 1)).encode() : null;
+    }
+}
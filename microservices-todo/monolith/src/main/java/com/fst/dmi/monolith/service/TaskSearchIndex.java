@@ -0,0 +1,183 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.TaskEvent;
+import com.fst.dmi.monolith.repository.TaskRepository;
+import com.fst.dmi.monolith.repository.TaskSearchDocument;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory full-text index of task titles and descriptions, with one {@link TaskSearchPartition}
+ * per user so a query only ever looks at the searching user's tasks.
+ *
+ * <p>A user's partition is built from the tasks table on first use, or for every user by a
+ * background rebuild at startup ({@code tasks.search.preload}). Loaded partitions are kept current
+ * by task events, so a change becomes searchable once the event pipeline has delivered it.
+ */
+@Component
+public class TaskSearchIndex implements TaskEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchIndex.class);
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate primaryReads;
+    private final boolean preload;
+
+    private final Map<Long, TaskSearchPartition> partitions = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @Autowired
+    public TaskSearchIndex(TaskRepository taskRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${tasks.search.preload:true}") boolean preload) {
+        this.taskRepository = taskRepository;
+        // Partitions are loaded in a read-write transaction so they come from the primary: a row read
+        // from a lagging replica would stay stale in the index until the task is edited again
+        this.primaryReads = new TransactionTemplate(transactionManager);
+        this.preload = preload;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!preload || running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::rebuild, "task-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            List<Long> userIds = primaryReads.execute(status -> taskRepository.findUserIdsWithTasks());
+            for (Long userId : userIds) {
+                if (!running) {
+                    return;
+                }
+                partition(userId);
+            }
+            log.info("Search index built for {} users ({} tasks) in {} ms",
+                    partitions.size(), getDocumentCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Search index rebuild stopped; remaining users are indexed on their first search", e);
+        }
+    }
+
+    public TaskSearchPartition.Hits search(Long userId, String query, int offset, int limit) {
+        return partition(userId).search(query, offset, limit);
+    }
+
+    private TaskSearchPartition partition(Long userId) {
+        while (true) {
+            TaskSearchPartition partition = partitions.get(userId);
+            if (partition == null) {
+                TaskSearchPartition created = new TaskSearchPartition();
+                created.startLoading();
+                partition = partitions.putIfAbsent(userId, created);
+                if (partition == null) {
+                    load(userId, created);
+                    return created;
+                }
+            }
+            if (partition.awaitLoaded()) {
+                return partition;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrupted while the search index was loading");
+            }
+        }
+    }
+
+    // Events for the user's tasks are applied to the partition while it loads and take precedence
+    private void load(Long userId, TaskSearchPartition partition) {
+        boolean success = false;
+        try {
+            List<TaskSearchDocument> documents =
+                    primaryReads.execute(status -> taskRepository.findSearchDocumentsByUserId(userId));
+            for (TaskSearchDocument document : documents) {
+                partition.load(document.getId(), document.getTitle(), document.getDescription());
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                partitions.remove(userId, partition);
+            }
+            partition.finishLoading(success);
+        }
+    }
+
+    @Override
+    public void onTaskEvents(List<TaskEvent> events) {
+        Set<Long> changedIds = new LinkedHashSet<>();
+        for (TaskEvent event : events) {
+            TaskSearchPartition partition = partitions.get(event.getUserId());
+            if (partition == null) {
+                continue;
+            }
+            if (event.getType() == TaskEvent.Type.DELETED) {
+                changedIds.remove(event.getTaskId());
+                partition.remove(event.getTaskId());
+            } else {
+                changedIds.add(event.getTaskId());
+            }
+        }
+        if (changedIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new LinkedHashSet<>(changedIds);
+        for (TaskSearchDocument document : taskRepository.findSearchDocumentsByIdIn(changedIds)) {
+            missing.remove(document.getId());
+            TaskSearchPartition partition = partitions.get(document.getUserId());
+            if (partition != null) {
+                partition.put(document.getId(), document.getTitle(), document.getDescription());
+            }
+        }
+        // Deleted after the event was published; its DELETED event may not have come yet
+        for (TaskEvent event : events) {
+            if (missing.contains(event.getTaskId())) {
+                TaskSearchPartition partition = partitions.get(event.getUserId());
+                if (partition != null) {
+                    partition.remove(event.getTaskId());
+                }
+            }
+        }
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    public long getDocumentCount() {
+        long count = 0;
+        for (TaskSearchPartition partition : partitions.values()) {
+            count += partition.size();
+        }
+        return count;
+    }
+}
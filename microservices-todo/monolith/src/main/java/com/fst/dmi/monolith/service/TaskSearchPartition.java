@@ -0,0 +1,278 @@
+package com.fst.dmi.monolith.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over one user's tasks: for each term, the tasks whose title or description contain
+ * it and the term's weight in each (a title occurrence counts {@value #TITLE_WEIGHT} times). Terms are
+ * kept sorted, so the words starting with a prefix form one contiguous range.
+ *
+ * <p>A query matches tasks containing every query term, either as a whole word or, for terms of at
+ * least {@value #MIN_PREFIX_LENGTH} characters, as the start of one. Matches are ranked by the sum of
+ * weight x inverse document frequency over the matched words, with prefix completions counting half.
+ * Terms are compared lower-cased and without accents.
+ */
+public class TaskSearchPartition {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MAX_QUERY_TERMS = 8;
+    // Completions looked at per prefix; a very short prefix on a large vocabulary only ranks these
+    static final int MAX_PREFIX_TERMS = 256;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // While the partition is being filled from the database: tasks removed in the meantime
+    private Set<Long> removedWhileLoading;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private volatile boolean failed;
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(folded)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Adds or replaces a task.
+     */
+    public void put(Long taskId, String title, String description) {
+        Map<String, Integer> weights = weigh(title, description);
+        lock.writeLock().lock();
+        try {
+            removeDocument(taskId);
+            addDocument(taskId, weights);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long taskId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(taskId);
+            if (removedWhileLoading != null) {
+                removedWhileLoading.add(taskId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void startLoading() {
+        lock.writeLock().lock();
+        try {
+            removedWhileLoading = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a task read by the initial load, unless it was put or removed since the load started:
+     * those changes are newer than the row that was read.
+     */
+    void load(Long taskId, String title, String description) {
+        Map<String, Integer> weights = weigh(title, description);
+        lock.writeLock().lock();
+        try {
+            if (!documents.containsKey(taskId) && !removedWhileLoading.contains(taskId)) {
+                addDocument(taskId, weights);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void finishLoading(boolean success) {
+        lock.writeLock().lock();
+        try {
+            removedWhileLoading = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        failed = !success;
+        loaded.countDown();
+    }
+
+    /**
+     * Waits for the initial load; returns false if it failed, in which case the partition is
+     * incomplete and has been discarded.
+     */
+    boolean awaitLoaded() {
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !failed;
+    }
+
+    private static Map<String, Integer> weigh(String title, String description) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(title)) {
+            weights.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(description)) {
+            weights.merge(term, 1, Integer::sum);
+        }
+        return weights;
+    }
+
+    private void addDocument(Long taskId, Map<String, Integer> weights) {
+        documents.put(taskId, weights);
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(taskId, weight));
+    }
+
+    private void removeDocument(Long taskId) {
+        Map<String, Integer> weights = documents.remove(taskId);
+        if (weights == null) {
+            return;
+        }
+        for (String term : weights.keySet()) {
+            Map<Long, Integer> tasks = postings.get(term);
+            tasks.remove(taskId);
+            if (tasks.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the matching tasks ranked {@code offset} to {@code offset + limit}, best first
+     * (ties broken by newest task), together with the total number of matches.
+     */
+    public Hits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                scores = score(term, scores);
+                if (scores.isEmpty()) {
+                    return new Hits(List.of(), 0);
+                }
+            }
+            return page(scores, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Scores of one query term, restricted to the tasks that matched the previous terms (if any)
+    private Map<Long, Double> score(String term, Map<Long, Double> previous) {
+        Map<Long, Double> scores = new HashMap<>();
+        int documentCount = documents.size();
+        Map<String, Map<Long, Integer>> matches = term.length() >= MIN_PREFIX_LENGTH
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : Collections.singletonMap(term, postings.getOrDefault(term, Map.of()));
+        int expanded = 0;
+        for (Map.Entry<String, Map<Long, Integer>> match : matches.entrySet()) {
+            if (expanded++ == MAX_PREFIX_TERMS) {
+                break;
+            }
+            Map<Long, Integer> tasks = match.getValue();
+            if (tasks.isEmpty()) {
+                continue;
+            }
+            double idf = Math.log(1 + (double) documentCount / tasks.size());
+            double factor = match.getKey().equals(term) ? 1.0 : 0.5;
+            for (Map.Entry<Long, Integer> task : tasks.entrySet()) {
+                Double before = previous == null ? Double.valueOf(0) : previous.get(task.getKey());
+                if (before != null) {
+                    double contribution = task.getValue() * idf * factor;
+                    // A task containing several completions of a prefix counts the best one
+                    scores.merge(task.getKey(), before + contribution, Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    // Keeps only the best offset + limit matches in a heap instead of sorting them all
+    private static Hits page(Map<Long, Double> scores, int offset, int limit) {
+        if (offset >= scores.size()) {
+            return new Hits(List.of(), scores.size());
+        }
+        int wanted = (int) Math.min((long) offset + limit, scores.size());
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(wanted + 1,
+                (a, b) -> a.getValue().equals(b.getValue()) ? Long.compare(a.getKey(), b.getKey())
+                        : Double.compare(a.getValue(), b.getValue()));
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            best.add(entry);
+            if (best.size() > wanted) {
+                best.poll();
+            }
+        }
+        List<Long> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ranked.add(best.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return new Hits(ranked.subList(offset, ranked.size()), scores.size());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static class Hits {
+
+        private final List<Long> taskIds;
+        private final int total;
+
+        public Hits(List<Long> taskIds, int total) {
+            this.taskIds = taskIds;
+            this.total = total;
+        }
+
+        public List<Long> getTaskIds() {
+            return taskIds;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
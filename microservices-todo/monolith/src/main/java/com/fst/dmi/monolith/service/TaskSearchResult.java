@@ -0,0 +1,54 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.Task;
+
+import java.util.List;
+
+public class TaskSearchResult {
+
+    private final String query;
+    private final List<Task> tasks;
+    private final int page;
+    private final int size;
+    private final long total;
+
+    public TaskSearchResult(String query, List<Task> tasks, int page, int size, long total) {
+        this.query = query;
+        this.tasks = tasks;
+        this.page = page;
+        this.size = size;
+        this.total = total;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getTotalPages() {
+        return (int) ((total + size - 1) / size);
+    }
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+
+    public boolean hasNext() {
+        return (long) (page + 1) * size < total;
+    }
+}
@@ -1,46 +1,159 @@
 package com.fst.dmi.monolith.service;
 
 import com.fst.dmi.monolith.model.Task;
+import com.fst.dmi.monolith.model.TaskEvent;
 import com.fst.dmi.monolith.model.User;
 import com.fst.dmi.monolith.repository.TaskRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed(value = "tasks.service", histogram = true)
 public class TaskService {
 
     private final TaskRepository taskRepository;
     private final NotificationService notificationService;
+    private final UserStatsService userStatsService;
+    private final TaskEventPipeline taskEventPipeline;
+    private final TaskSearchIndex taskSearchIndex;
+    private final ReadYourWrites readYourWrites;
 
     @Autowired
-    public TaskService(TaskRepository taskRepository, NotificationService notificationService) {
+    public TaskService(TaskRepository taskRepository, NotificationService notificationService,
+                       UserStatsService userStatsService, TaskEventPipeline taskEventPipeline,
+                       TaskSearchIndex taskSearchIndex, ReadYourWrites readYourWrites) {
         this.taskRepository = taskRepository;
         this.notificationService = notificationService;
+        this.userStatsService = userStatsService;
+        this.taskEventPipeline = taskEventPipeline;
+        this.taskSearchIndex = taskSearchIndex;
+        this.readYourWrites = readYourWrites;
     }
 
+    // The due-soon notification is created off the request thread by the task event pipeline
+    @Transactional
     public Task createTask(Task task) {
         Task savedTask = taskRepository.save(task);
-        
-        // Check if task has a due date soon and create notification if needed
-        if (savedTask.getDueDate() != null && savedTask.isDueSoon(7)) {
-            notificationService.createTaskDueNotification(savedTask);
-        }
-        
+        Long userId = savedTask.getUser().getId();
+        userStatsService.taskCreated(userId, savedTask.isCompleted());
+        taskEventPipeline.publish(TaskEvent.Type.CREATED, savedTask.getId(), userId);
         return savedTask;
     }
 
+    @Transactional(readOnly = true)
     public Optional<Task> findById(Long id) {
         return taskRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Task> findByIdForUser(Long id, Long userId) {
+        return readYourWrites.readingFor(userId, () -> taskRepository.findByIdAndUserId(id, userId));
+    }
+
+    @Transactional(readOnly = true)
     public List<Task> findAllByUser(User user) {
-        return taskRepository.findByUserOrderByDueDateAsc(user);
+        return readYourWrites.readingFor(user.getId(), () -> taskRepository.findByUserOrderByDueDateAsc(user));
+    }
+
+    /**
+     * Returns one page of the user's tasks using keyset pagination, so the cost of a page does not
+     * depend on how many tasks precede it. {@code before} takes precedence over {@code after}.
+     */
+    @Transactional(readOnly = true)
+    public TaskPage findPageByUser(User user, String after, String before, int size) {
+        return readYourWrites.readingFor(user.getId(), () -> findPage(user, after, before, size));
+    }
+
+    private TaskPage findPage(User user, String after, String before, int size) {
+        int pageSize = TaskPage.clampSize(size);
+        TaskCursor beforeCursor = TaskCursor.decode(before);
+        if (beforeCursor != null) {
+            List<Task> tasks = seekBackward(user, beforeCursor, pageSize + 1);
+            boolean hasPrevious = tasks.size() > pageSize;
+            if (hasPrevious) {
+                tasks = new ArrayList<>(tasks.subList(0, pageSize));
+            }
+            Collections.reverse(tasks);
+            return new TaskPage(tasks, pageSize, hasPrevious, true);
+        }
+
+        TaskCursor afterCursor = TaskCursor.decode(after);
+        List<Task> tasks = seekForward(user, afterCursor, pageSize + 1);
+        boolean hasNext = tasks.size() > pageSize;
+        if (hasNext) {
+            tasks = new ArrayList<>(tasks.subList(0, pageSize));
+        }
+        return new TaskPage(tasks, pageSize, afterCursor != null, hasNext);
+    }
+
+    private List<Task> seekForward(User user, TaskCursor cursor, int limit) {
+        List<Task> tasks = new ArrayList<>();
+        if (cursor == null) {
+            tasks.addAll(taskRepository.findByUserAndDueDateNotNullOrderByDueDateAscIdAsc(user, PageRequest.of(0, limit)));
+        } else if (cursor.getDueDate() != null) {
+            tasks.addAll(taskRepository.findDatedAfter(user, cursor.getDueDate(), cursor.getId(), PageRequest.of(0, limit)));
+        } else {
+            tasks.addAll(taskRepository.findByUserAndDueDateNullAndIdGreaterThanOrderByIdAsc(user, cursor.getId(), PageRequest.of(0, limit)));
+            return tasks;
+        }
+        if (tasks.size() < limit) {
+            tasks.addAll(taskRepository.findByUserAndDueDateNullOrderByIdAsc(user, PageRequest.of(0, limit - tasks.size())));
+        }
+        return tasks;
     }
 
+    // Returns tasks in descending order; the caller reverses them for display
+    private List<Task> seekBackward(User user, TaskCursor cursor, int limit) {
+        List<Task> tasks = new ArrayList<>();
+        if (cursor.getDueDate() != null) {
+            tasks.addAll(taskRepository.findDatedBefore(user, cursor.getDueDate(), cursor.getId(), PageRequest.of(0, limit)));
+            return tasks;
+        }
+        tasks.addAll(taskRepository.findByUserAndDueDateNullAndIdLessThanOrderByIdDesc(user, cursor.getId(), PageRequest.of(0, limit)));
+        if (tasks.size() < limit) {
+            tasks.addAll(taskRepository.findByUserAndDueDateNotNullOrderByDueDateDescIdDesc(user, PageRequest.of(0, limit - tasks.size())));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns one page of the user's tasks matching the query, best match first. Only the tasks on
+     * the page are read from the database; the ranking comes from the search index. Not transactional
+     * so that loading the user's index partition is not tied to a read-only transaction.
+     */
+    public TaskSearchResult searchTasks(Long userId, String query, int page, int size) {
+        int pageSize = TaskPage.clampSize(size);
+        int pageNumber = Math.max(0, page);
+        TaskSearchPartition.Hits hits = taskSearchIndex.search(userId, query, pageNumber * pageSize, pageSize);
+        if (hits.getTaskIds().isEmpty()) {
+            return new TaskSearchResult(query, List.of(), pageNumber, pageSize, hits.getTotal());
+        }
+        Map<Long, Task> tasksById = new HashMap<>();
+        for (Task task : taskRepository.findByIdInAndUserId(hits.getTaskIds(), userId)) {
+            tasksById.put(task.getId(), task);
+        }
+        List<Task> tasks = new ArrayList<>(tasksById.size());
+        for (Long id : hits.getTaskIds()) {
+            Task task = tasksById.get(id);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return new TaskSearchResult(query, tasks, pageNumber, pageSize, hits.getTotal());
+    }
+
+    @Transactional(readOnly = true)
     public List<Task> findAll() {
         return taskRepository.findAll();
     }
@@ -49,22 +162,57 @@ public class TaskService {
         return taskRepository.save(task);
     }
 
-    public void deleteTask(Long id) {
-        taskRepository.deleteById(id);
+    /**
+     * Updates one of the user's tasks without loading it; returns false when the task does not exist
+     * or belongs to someone else. The completion flag is changed by its own conditional UPDATE so
+     * the user's stats are only adjusted when it actually flips.
+     */
+    @Transactional
+    public boolean updateTask(Long id, Long userId, String title, String description, LocalDateTime dueDate, boolean completed) {
+        boolean completionChanged = taskRepository.changeCompletedByIdAndUserId(id, userId, completed) > 0;
+        if (completionChanged) {
+            userStatsService.taskCompletionChanged(userId, completed);
+        }
+        if (taskRepository.updateByIdAndUserId(id, userId, title, description, dueDate, completed) == 0) {
+            return false;
+        }
+        TaskEvent.Type type = completionChanged && completed ? TaskEvent.Type.COMPLETED : TaskEvent.Type.UPDATED;
+        taskEventPipeline.publish(type, id, userId);
+        return true;
+    }
+
+    /**
+     * Deletes one of the user's tasks and its notifications with two bulk statements instead of
+     * loading the task and cascading through its notifications collection.
+     */
+    @Transactional
+    public boolean deleteTask(Long id, Long userId) {
+        notificationService.deleteByTask(id, userId);
+        for (boolean completed : new boolean[] {false, true}) {
+            if (taskRepository.deleteByIdAndUserIdAndCompleted(id, userId, completed) > 0) {
+                userStatsService.taskDeleted(userId, completed);
+                taskEventPipeline.publish(TaskEvent.Type.DELETED, id, userId);
+                return true;
+            }
+        }
+        return false;
     }
     
+    @Transactional(readOnly = true)
     public List<Task> findTasksDueSoon(int days) {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime threshold = now.plusDays(days);
         return taskRepository.findByCompletedFalseAndDueDateBetween(now, threshold);
     }
 
-    public void completeTask(Long id) {
-        Optional<Task> taskOpt = taskRepository.findById(id);
-        if (taskOpt.isPresent()) {
-            Task task = taskOpt.get();
-            task.setCompleted(true);
-            taskRepository.save(task);
+    // Completing an already completed task succeeds without touching the stats
+    @Transactional
+    public boolean completeTask(Long id, Long userId) {
+        if (taskRepository.changeCompletedByIdAndUserId(id, userId, true) > 0) {
+            userStatsService.taskCompletionChanged(userId, true);
+            taskEventPipeline.publish(TaskEvent.Type.COMPLETED, id, userId);
+            return true;
         }
+        return taskRepository.existsByIdAndUserId(id, userId);
     }
 }
@@ -0,0 +1,121 @@
+package com.fst.dmi.monolith.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU cache of unread notification counts per user id. Entries are adjusted incrementally by
+ * {@link NotificationService} and periodically reconciled against the database.
+ *
+ * <p>A generation counter is bumped on every change; values computed from the database are only
+ * stored if no change happened while they were being computed, so a slow load cannot overwrite a
+ * concurrent increment with a stale count. Changes made inside a transaction are bracketed by
+ * {@link #beginChange} and {@link #endChange}: in between, counts loaded for that user are not
+ * stored, since the load may or may not see the uncommitted rows.
+ */
+@Component
+public class UnreadCountCache {
+
+    private final int maxSize;
+    private final LinkedHashMap<Long, Long> counts;
+    private long generation;
+    // Users with changes written but not yet committed or rolled back, and how many
+    private final Map<Long, Integer> pendingChanges = new HashMap<>();
+
+    @Autowired
+    public UnreadCountCache(@Value("${notifications.unread-cache.max-size:10000}") int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.counts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > UnreadCountCache.this.maxSize;
+            }
+        };
+    }
+
+    public long get(Long userId, LongSupplier loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Long cached = counts.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        long loaded = loader.getAsLong();
+        synchronized (this) {
+            if (generation == loadGeneration && !pendingChanges.containsKey(userId)) {
+                counts.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void add(Long userId, long delta) {
+        generation++;
+        counts.computeIfPresent(userId, (id, count) -> Math.max(0L, count + delta));
+    }
+
+    public synchronized void beginChange(Long userId) {
+        generation++;
+        pendingChanges.merge(userId, 1, Integer::sum);
+    }
+
+    /**
+     * Ends a change started with {@link #beginChange}, applying {@code delta} to the cached count;
+     * pass 0 when the transaction rolled back.
+     */
+    public synchronized void endChange(Long userId, long delta) {
+        generation++;
+        pendingChanges.computeIfPresent(userId, (id, pending) -> pending == 1 ? null : pending - 1);
+        if (delta != 0) {
+            counts.computeIfPresent(userId, (id, count) -> Math.max(0L, count + delta));
+        }
+    }
+
+    public synchronized void evict(Long userId) {
+        generation++;
+        counts.remove(userId);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        counts.clear();
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized List<Long> cachedUserIds() {
+        return new ArrayList<>(counts.keySet());
+    }
+
+    /**
+     * Overwrites cached entries with freshly counted values, unless the cache changed since
+     * {@code sinceGeneration}; returns whether the values were applied.
+     */
+    public synchronized boolean reconcile(Map<Long, Long> freshCounts, long sinceGeneration) {
+        if (generation != sinceGeneration) {
+            return false;
+        }
+        freshCounts.forEach((userId, count) -> {
+            if (!pendingChanges.containsKey(userId)) {
+                counts.replace(userId, count);
+            }
+        });
+        return true;
+    }
+
+    public synchronized int size() {
+        return counts.size();
+    }
+}
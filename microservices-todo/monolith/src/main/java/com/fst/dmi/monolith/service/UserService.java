@@ -3,8 +3,10 @@ package com.fst.dmi.monolith.service;
 import com.fst.dmi.monolith.model.User;
 import com.fst.dmi.monolith.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,13 +16,19 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserStatsService userStatsService;
+    private final UserCache userCache;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       UserStatsService userStatsService, UserCache userCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userStatsService = userStatsService;
+        this.userCache = userCache;
     }
 
+    @Transactional
     public User createUser(User user) {
         if (userRepository.existsByUsername(user.getUsername())) {
             throw new RuntimeException("Username already exists");
@@ -30,7 +38,9 @@ public class UserService {
         }
         
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userStatsService.createFor(saved.getId());
+        return saved;
     }
 
     public Optional<User> findById(Long id) {
@@ -45,12 +55,25 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    // Users are second-level cached and their login details are in the UserCache; both are evicted
     public User updateUser(User user) {
-        return userRepository.save(user);
+        String previousUsername = userRepository.findById(user.getId()).map(User::getUsername).orElse(null);
+        User saved = userRepository.save(user);
+        userRepository.evictFromCache(saved.getId());
+        if (previousUsername != null) {
+            userCache.removeUserFromCache(previousUsername);
+        }
+        userCache.removeUserFromCache(saved.getUsername());
+        return saved;
     }
 
     public void deleteUser(Long id) {
+        String username = userRepository.findById(id).map(User::getUsername).orElse(null);
         userRepository.deleteById(id);
+        userRepository.evictFromCache(id);
+        if (username != null) {
+            userCache.removeUserFromCache(username);
+        }
     }
 
     public boolean authenticateUser(String username, String password) {
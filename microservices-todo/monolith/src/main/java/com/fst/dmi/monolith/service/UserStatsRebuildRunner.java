@@ -0,0 +1,31 @@
+package com.fst.dmi.monolith.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drift repair for the user_stats counters: starting the application with
+ * {@code --rebuild-user-stats} recomputes every user's row from the source tables once startup
+ * completes.
+ */
+@Component
+public class UserStatsRebuildRunner implements ApplicationRunner {
+
+    public static final String OPTION = "rebuild-user-stats";
+
+    private final UserStatsService userStatsService;
+
+    @Autowired
+    public UserStatsRebuildRunner(UserStatsService userStatsService) {
+        this.userStatsService = userStatsService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPTION)) {
+            userStatsService.rebuildAll();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.UserStats;
+import com.fst.dmi.monolith.repository.TaskRepository;
+import com.fst.dmi.monolith.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Maintains the per-user counters in {@code user_stats}. The adjust methods join the caller's
+ * transaction, so a counter only changes if the task or notification change it describes commits.
+ * Overdue tasks are not stored because tasks become overdue as time passes; they are counted from
+ * the (user_id, due_date) index when the stats are read.
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    private final UserStatsRepository userStatsRepository;
+    private final TaskRepository taskRepository;
+
+    @Autowired
+    public UserStatsService(UserStatsRepository userStatsRepository, TaskRepository taskRepository) {
+        this.userStatsRepository = userStatsRepository;
+        this.taskRepository = taskRepository;
+    }
+
+    public void createFor(Long userId) {
+        userStatsRepository.save(new UserStats(userId));
+    }
+
+    /**
+     * Returns the user's counters, rebuilding the row first if it is missing (e.g. for users
+     * inserted outside the application).
+     */
+    @Transactional
+    public UserStatsView getStats(Long userId) {
+        UserStats stats = userStatsRepository.findById(userId).orElseGet(() -> rebuild(userId));
+        long overdue = taskRepository.countOverdueByUserId(userId, LocalDateTime.now());
+        return new UserStatsView(stats, overdue);
+    }
+
+    public void taskCreated(Long userId, boolean completed) {
+        tasksAdded(userId, completed ? 0 : 1, completed ? 1 : 0);
+    }
+
+    public void tasksAdded(Long userId, long open, long completed) {
+        if (open != 0 || completed != 0) {
+            userStatsRepository.adjustTasks(userId, open, completed, LocalDateTime.now());
+        }
+    }
+
+    public void taskCompletionChanged(Long userId, boolean completed) {
+        int delta = completed ? 1 : -1;
+        userStatsRepository.adjustTasks(userId, -delta, delta, LocalDateTime.now());
+    }
+
+    public void taskDeleted(Long userId, boolean completed) {
+        tasksAdded(userId, completed ? 0 : -1, completed ? -1 : 0);
+    }
+
+    public void unreadChanged(Long userId, long delta) {
+        if (delta != 0) {
+            userStatsRepository.adjustUnread(userId, delta, LocalDateTime.now());
+        }
+    }
+
+    public void sweepNotificationsAdded(LocalDateTime createdAt, long fromId, long toId) {
+        userStatsRepository.addSweepNotifications(createdAt, fromId, toId, LocalDateTime.now());
+    }
+
+    @Transactional
+    public UserStats rebuild(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        userStatsRepository.insertMissing(userId, now);
+        userStatsRepository.recompute(userId, now);
+        return userStatsRepository.findById(userId).orElseGet(() -> new UserStats(userId));
+    }
+
+    /**
+     * Recomputes every user's counters from the source tables, repairing any drift. Returns the
+     * number of rows rebuilt.
+     */
+    @Transactional
+    public int rebuildAll() {
+        LocalDateTime now = LocalDateTime.now();
+        int created = userStatsRepository.insertMissing(now);
+        int rebuilt = userStatsRepository.recomputeAll(now);
+        log.info("Rebuilt user stats for {} users ({} rows created)", rebuilt, created);
+        return rebuilt;
+    }
+}
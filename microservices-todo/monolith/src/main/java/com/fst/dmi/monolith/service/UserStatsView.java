@@ -0,0 +1,50 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.model.UserStats;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's dashboard counters: the stored {@link UserStats} row plus the overdue count, which
+ * depends on the current time and is therefore computed on read.
+ */
+public class UserStatsView {
+
+    private final long openTasks;
+    private final long completedTasks;
+    private final long overdueTasks;
+    private final long unreadNotifications;
+    private final LocalDateTime updatedAt;
+
+    public UserStatsView(UserStats stats, long overdueTasks) {
+        this.openTasks = stats.getOpenTasks();
+        this.completedTasks = stats.getCompletedTasks();
+        this.overdueTasks = overdueTasks;
+        this.unreadNotifications = stats.getUnreadNotifications();
+        this.updatedAt = stats.getUpdatedAt();
+    }
+
+    public long getOpenTasks() {
+        return openTasks;
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public long getTotalTasks() {
+        return openTasks + completedTasks;
+    }
+
+    public long getOverdueTasks() {
+        return overdueTasks;
+    }
+
+    public long getUnreadNotifications() {
+        return unreadNotifications;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,39 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves tasks and notifications from identity columns to pooled sequences, which lets Hibernate
+ * batch inserts. Each sequence starts one allocation block past the current maximum id, and the id
+ * column defaults to the sequence so plain SQL inserts cannot collide with Hibernate's blocks.
+ * Written in Java because the start value depends on existing data.
+ */
+public class V3__Pooled_id_sequences extends BaseJavaMigration {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            convert(statement, "tasks", "task_seq");
+            convert(statement, "notifications", "notification_seq");
+        }
+    }
+
+    private void convert(Statement statement, String table, String sequence) throws SQLException {
+        long maxId;
+        try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        statement.execute("CREATE SEQUENCE " + sequence + " START WITH " + (maxId + 1 + ALLOCATION_SIZE)
+                + " INCREMENT BY " + ALLOCATION_SIZE);
+        statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+        statement.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT NEXT VALUE FOR " + sequence);
+    }
+}
@@ -0,0 +1,36 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Existing databases are baselined
+-- at this version, so this script only runs against empty databases.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at TIMESTAMP(6) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE tasks (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    completed BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    description VARCHAR(1000),
+    due_date TIMESTAMP(6),
+    title VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE notifications (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at TIMESTAMP(6) NOT NULL,
+    message VARCHAR(255) NOT NULL,
+    read BOOLEAN NOT NULL,
+    task_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE users ADD CONSTRAINT UK_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email);
+ALTER TABLE users ADD CONSTRAINT UK_r43af9ap4edm43mmtq01oddj6 UNIQUE (username);
+ALTER TABLE notifications ADD CONSTRAINT FK2ktjq1slw0ldkuy5rx8fbte2p FOREIGN KEY (task_id) REFERENCES tasks;
+ALTER TABLE tasks ADD CONSTRAINT FK6s1ob9k4ihi75xbxe2w0ylsdh FOREIGN KEY (user_id) REFERENCES users;
@@ -0,0 +1,8 @@
+-- Task list and its keyset pagination: WHERE user_id = ? ORDER BY due_date, id
+CREATE INDEX idx_tasks_user_due_date ON tasks (user_id, due_date, id);
+
+-- Due-date sweeps: WHERE completed = false AND due_date BETWEEN ? AND ?
+CREATE INDEX idx_tasks_completed_due_date ON tasks (completed, due_date);
+
+-- Unread checks and counts: WHERE task_id = ? AND read = false
+CREATE INDEX idx_notifications_task_read ON notifications (task_id, read);
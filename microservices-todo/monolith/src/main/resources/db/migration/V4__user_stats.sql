@@ -0,0 +1,19 @@
+-- Per-user dashboard counters, kept up to date by the services that change tasks and notifications
+CREATE TABLE user_stats (
+    user_id BIGINT NOT NULL,
+    open_tasks BIGINT NOT NULL,
+    completed_tasks BIGINT NOT NULL,
+    unread_notifications BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+ALTER TABLE user_stats ADD CONSTRAINT fk_user_stats_user FOREIGN KEY (user_id) REFERENCES users ON DELETE CASCADE;
+
+INSERT INTO user_stats (user_id, open_tasks, completed_tasks, unread_notifications, updated_at)
+SELECT u.id,
+       (SELECT COUNT(*) FROM tasks t WHERE t.user_id = u.id AND t.completed = FALSE),
+       (SELECT COUNT(*) FROM tasks t WHERE t.user_id = u.id AND t.completed = TRUE),
+       (SELECT COUNT(*) FROM notifications n JOIN tasks t ON t.id = n.task_id WHERE t.user_id = u.id AND n.read = FALSE),
+       CURRENT_TIMESTAMP
+FROM users u;
@@ -0,0 +1,16 @@
+-- Transactional outbox for task events: a row is written in the same transaction as the task change
+-- and deleted once its side effects (notifications) are committed. Rows that keep failing stay
+-- behind with attempts >= tasks.events.max-attempts for inspection.
+CREATE SEQUENCE task_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE task_events (
+    id BIGINT NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    task_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    attempts INTEGER DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_task_events_pending ON task_events (attempts, id);
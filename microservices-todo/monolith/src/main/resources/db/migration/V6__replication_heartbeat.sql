@@ -0,0 +1,9 @@
+-- Heartbeat row for the read replica: the application updates it on the primary and reads it back
+-- from the replica to measure replication lag (only used when datasource.replica.url is set)
+CREATE TABLE replication_heartbeat (
+    id INTEGER NOT NULL,
+    beat_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP);
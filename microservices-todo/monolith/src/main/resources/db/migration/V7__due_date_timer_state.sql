@@ -0,0 +1,9 @@
+-- How far the due-date timers have fired: at startup, timers that came due since then while the
+-- application was down are fired once
+CREATE TABLE due_date_timer_state (
+    id INTEGER NOT NULL,
+    fired_until TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO due_date_timer_state (id, fired_until) VALUES (1, CURRENT_TIMESTAMP);
@@ -0,0 +1,83 @@
+package com.fst.dmi.monolith;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Test rows written with plain SQL, so that no task events, notifications or cache updates are
+ * produced as a side effect.
+ */
+public class TestData {
+
+    private final JdbcTemplate jdbc;
+
+    public TestData(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Long createUser() {
+        String username = "user-" + UUID.randomUUID();
+        Long userId = insert("INSERT INTO users (username, email, password, created_at) VALUES (?, ?, ?, ?)",
+                username, username + "@test.local", "{noop}password", Timestamp.valueOf(LocalDateTime.now()));
+        jdbc.update("INSERT INTO user_stats (user_id, open_tasks, completed_tasks, unread_notifications, updated_at) " +
+                "VALUES (?, 0, 0, 0, ?)", userId, Timestamp.valueOf(LocalDateTime.now()));
+        return userId;
+    }
+
+    public Long createTask(Long userId, String title, LocalDateTime dueDate) {
+        return insert("INSERT INTO tasks (title, description, due_date, completed, created_at, user_id) VALUES (?, ?, ?, ?, ?, ?)",
+                title, "Test task", dueDate == null ? null : Timestamp.valueOf(dueDate), false,
+                Timestamp.valueOf(LocalDateTime.now()), userId);
+    }
+
+    public long countNotifications(Long userId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM notifications n JOIN tasks t ON t.id = n.task_id " +
+                "WHERE t.user_id = ?", Long.class, userId);
+    }
+
+    public List<String> notificationMessages(Long userId) {
+        return jdbc.queryForList("SELECT n.message FROM notifications n JOIN tasks t ON t.id = n.task_id " +
+                "WHERE t.user_id = ? ORDER BY n.id", String.class, userId);
+    }
+
+    public long countTaskEvents(Long userId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM task_events WHERE user_id = ?", Long.class, userId);
+    }
+
+    public Integer taskEventAttempts(Long taskId) {
+        List<Integer> attempts = jdbc.queryForList("SELECT attempts FROM task_events WHERE task_id = ?", Integer.class, taskId);
+        return attempts.isEmpty() ? null : attempts.get(0);
+    }
+
+    public long countTaskNotifications(Long taskId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM notifications WHERE task_id = ?", Long.class, taskId);
+    }
+
+    public long openTasksStat(Long userId) {
+        return jdbc.queryForObject("SELECT open_tasks FROM user_stats WHERE user_id = ?", Long.class, userId);
+    }
+
+    public long unreadStat(Long userId) {
+        return jdbc.queryForObject("SELECT unread_notifications FROM user_stats WHERE user_id = ?", Long.class, userId);
+    }
+
+    private Long insert(String sql, Object... args) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[] {"id"});
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keys);
+        return Objects.requireNonNull(keys.getKey()).longValue();
+    }
+}
@@ -0,0 +1,95 @@
+package com.fst.dmi.monolith.config;
+
+import com.fst.dmi.monolith.TestData;
+import com.fst.dmi.monolith.service.NotificationService;
+import com.fst.dmi.monolith.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads of a user's data stay on the primary after a change to it, also when the change was made
+ * without a logged-in user. A second pool on the primary's database stands in for the replica.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:read-write-routing;DB_CLOSE_DELAY=-1",
+        "datasource.replica.url=jdbc:h2:mem:read-write-routing;DB_CLOSE_DELAY=-1",
+        "datasource.replica.max-lag=1m",
+        "datasource.replica.heartbeat-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReadWriteRoutingTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        data = new TestData(jdbc);
+        routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        routing.checkReplicaLag();
+        assertThat(routing.isReplicaAvailable()).isTrue();
+    }
+
+    @Test
+    void readsOfAnUnchangedUserUseTheReplica() {
+        Long userId = data.createUser();
+        Long taskId = data.createTask(userId, "Unchanged", LocalDateTime.now().plusDays(3));
+
+        long replicaReads = routing.getReplicaReadCount();
+        assertThat(taskService.findByIdForUser(taskId, userId)).isPresent();
+
+        assertThat(routing.getReplicaReadCount()).isEqualTo(replicaReads + 1);
+    }
+
+    @Test
+    void readsAfterAChangeUseThePrimary() {
+        Long userId = data.createUser();
+        Long otherUserId = data.createUser();
+        Long taskId = data.createTask(userId, "Changed", LocalDateTime.now().plusDays(3));
+        Long otherTaskId = data.createTask(otherUserId, "Unchanged", LocalDateTime.now().plusDays(3));
+
+        assertThat(taskService.updateTask(taskId, userId, "Changed again", "Test task",
+                LocalDateTime.now().plusDays(3), false)).isTrue();
+
+        long replicaReads = routing.getReplicaReadCount();
+        long primaryReads = routing.getPrimaryReadCount();
+        assertThat(taskService.findByIdForUser(taskId, userId)).get()
+                .satisfies(task -> assertThat(task.getTitle()).isEqualTo("Changed again"));
+        assertThat(routing.getPrimaryReadCount()).isEqualTo(primaryReads + 1);
+        assertThat(routing.getReplicaReadCount()).isEqualTo(replicaReads);
+
+        assertThat(taskService.findByIdForUser(otherTaskId, otherUserId)).isPresent();
+        assertThat(routing.getReplicaReadCount()).isEqualTo(replicaReads + 1);
+    }
+
+    @Test
+    void cachedUnreadCountsAreNotLoadedFromTheReplica() {
+        Long userId = data.createUser();
+
+        long replicaReads = routing.getReplicaReadCount();
+        notificationService.countUnreadNotifications(userId);
+
+        assertThat(routing.getReplicaReadCount()).isEqualTo(replicaReads);
+    }
+}
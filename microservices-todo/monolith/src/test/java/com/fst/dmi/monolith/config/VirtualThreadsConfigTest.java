@@ -0,0 +1,57 @@
+package com.fst.dmi.monolith.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadsConfigTest {
+
+    // Registered by component scanning, as in the application, so nested classes are picked up on their own
+    @Configuration
+    @ComponentScan(basePackageClasses = VirtualThreadsConfig.class, useDefaultFilters = false,
+            includeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = ".*\\.VirtualThreadsConfig\\$.*"))
+    static class ScannedConfig {
+    }
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ScannedConfig.class)
+            .withBean(DataSource.class, () -> new DriverManagerDataSource("jdbc:h2:mem:virtual-threads"));
+
+    @Test
+    void addsNothingWhenDisabled() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).doesNotHaveBean(VirtualThreadsConfig.VirtualThreadExecutors.class);
+            assertThat(context).doesNotHaveBean(VirtualThreadsConfig.Unsupported.class);
+            assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class);
+            assertThat(context.getBean(DataSource.class)).isNotInstanceOf(ConnectionAdmissionDataSource.class);
+        });
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=false").run(context -> {
+            assertThat(context).doesNotHaveBean(VirtualThreadsConfig.VirtualThreadExecutors.class);
+            assertThat(context).doesNotHaveBean(VirtualThreadsConfig.Unsupported.class);
+        });
+    }
+
+    @Test
+    void appliesWhenEnabled() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            assertThat(context).hasNotFailed();
+            if (Runtime.version().feature() >= 21) {
+                assertThat(context).hasSingleBean(VirtualThreadsConfig.VirtualThreadExecutors.class);
+                assertThat(context).hasSingleBean(TomcatProtocolHandlerCustomizer.class);
+                assertThat(context.getBean(DataSource.class)).isInstanceOf(ConnectionAdmissionDataSource.class);
+            } else {
+                assertThat(context).hasSingleBean(VirtualThreadsConfig.Unsupported.class);
+                assertThat(context).doesNotHaveBean(VirtualThreadsConfig.VirtualThreadExecutors.class);
+            }
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.fst.dmi.monolith.controller;
+
+import com.fst.dmi.monolith.Await;
+import com.fst.dmi.monolith.TestData;
+import com.fst.dmi.monolith.config.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Open notification streams do not hold database connections, so more users can have one open than
+ * the pool has connections. Each stream is opened for a new user, whose unread count is not cached
+ * yet and is read from the database when the stream opens.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=" + NotificationStreamConnectionTest.POOL_SIZE,
+        "spring.datasource.hikari.connection-timeout=500"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class NotificationStreamConnectionTest {
+
+    static final int POOL_SIZE = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+    }
+
+    @Test
+    void moreStreamsThanPooledConnectionsCanBeOpen() throws Exception {
+        for (int i = 0; i <= POOL_SIZE; i++) {
+            MvcResult result = mockMvc.perform(get("/notifications/stream").session(loggedIn(data.createUser())))
+                    .andExpect(request().asyncStarted())
+                    .andExpect(status().isOk())
+                    .andReturn();
+            Await.until("the stream sends the unread count",
+                    () -> result.getResponse().getContentAsByteArray().length > 0);
+        }
+
+        // Every connection would be held by an open stream by now
+        assertThat(data.createUser()).isNotNull();
+    }
+
+    private static MockHttpSession loggedIn(Long userId) {
+        UserPrincipal principal = new UserPrincipal(userId, "user-" + userId, "password", List.of());
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())));
+        return session;
+    }
+}
@@ -0,0 +1,102 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.Await;
+import com.fst.dmi.monolith.TestData;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Due-date timers, which the test profile turns off. The due-soon lead is longer than the seven days
+ * within which task events create due-soon notifications themselves, so a notification for a task
+ * due in more than seven days can only come from a timer.
+ */
+@SpringBootTest(properties = {"notifications.timer.enabled=true", "notifications.timer.due-soon-lead=8d"})
+@ActiveProfiles("test")
+class DueDateSchedulerTest {
+
+    private static final String URL = "jdbc:h2:mem:due-date-scheduler-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+
+    private static Long missedUserId;
+    private static Long missedTaskId;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+
+    /**
+     * Migrates the database before the application starts, as if it had been down for two days while
+     * a due-soon timer came due.
+     */
+    @DynamicPropertySource
+    static void databaseDownForTwoDays(DynamicPropertyRegistry registry) {
+        Flyway.configure().dataSource(URL, "sa", "password").locations("classpath:db/migration").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", "password"));
+        LocalDateTime now = LocalDateTime.now();
+        jdbc.update("UPDATE due_date_timer_state SET fired_until = ? WHERE id = 1", Timestamp.valueOf(now.minusDays(2)));
+        TestData data = new TestData(jdbc);
+        missedUserId = data.createUser();
+        missedTaskId = data.createTask(missedUserId, "Missed", now.plusDays(7));
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+    }
+
+    @Test
+    void timersThatCameDueWhileDownFireAtStartup() {
+        Await.until("the missed due-soon timer fires", () -> data.countTaskNotifications(missedTaskId) == 1);
+        assertThat(data.notificationMessages(missedUserId)).singleElement().asString().contains("is due soon");
+    }
+
+    @Test
+    void dueSoonTimerFiresAtItsTime() {
+        Long userId = data.createUser();
+        Long taskId = data.createTask(userId, "Timed", null);
+
+        setDueDate(taskId, userId, LocalDateTime.now().plusDays(8).plusSeconds(1));
+
+        Await.until("the due-soon timer fires", () -> data.countTaskNotifications(taskId) == 1);
+        assertThat(data.notificationMessages(userId)).singleElement().asString().contains("is due soon");
+    }
+
+    @Test
+    void timersOfAnEditedDueDateAreReplaced() {
+        Long userId = data.createUser();
+        Long movedTaskId = data.createTask(userId, "Moved", null);
+        Long sentinelTaskId = data.createTask(userId, "Sentinel", null);
+        LocalDateTime now = LocalDateTime.now();
+
+        setDueDate(movedTaskId, userId, now.plusDays(8).plusSeconds(3));
+        setDueDate(movedTaskId, userId, now.plusDays(9));
+        setDueDate(sentinelTaskId, userId, now.plusDays(8).plusSeconds(4));
+
+        Await.until("the later due-soon timer fires", () -> data.countTaskNotifications(sentinelTaskId) == 1);
+        assertThat(data.countTaskNotifications(movedTaskId)).isZero();
+    }
+
+    private void setDueDate(Long taskId, Long userId, LocalDateTime dueDate) {
+        assertThat(taskService.updateTask(taskId, userId, "Task " + taskId, "Test task",
+                dueDate.truncatedTo(ChronoUnit.MILLIS), false)).isTrue();
+    }
+}
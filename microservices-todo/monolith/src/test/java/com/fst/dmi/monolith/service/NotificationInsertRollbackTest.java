@@ -0,0 +1,121 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.TestData;
+import com.fst.dmi.monolith.model.TaskEvent;
+import com.fst.dmi.monolith.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The set-based writes must stay part of the caller's transaction: an import batch, a sweep chunk
+ * and an event batch each commit or roll back as a whole, together with user_stats.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class NotificationInsertRollbackTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private TaskEventPipeline taskEventPipeline;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+    }
+
+    // TaskImportService.persistBatch: task counters first, then the tasks' CREATED events
+    @Test
+    void importBatchRollsBackAsAWhole() {
+        Long userId = data.createUser();
+        Long taskId = data.createTask(userId, "Pay rent", LocalDateTime.now().plusDays(2));
+
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> {
+            userStatsService.tasksAdded(userId, 1, 0);
+            taskEventPipeline.publish(TaskEvent.Type.CREATED, taskId, userId);
+            throw new IllegalStateException("batch failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(data.openTasksStat(userId)).isZero();
+        assertThat(data.countTaskEvents(userId)).isZero();
+    }
+
+    // An event batch inserts one user's notifications after another's
+    @Test
+    void eventBatchRollsBackAsAWhole() {
+        Long firstUserId = data.createUser();
+        Long firstTaskId = data.createTask(firstUserId, "Pay rent", LocalDateTime.now().plusDays(2));
+        Long secondUserId = data.createUser();
+        Long secondTaskId = data.createTask(secondUserId, "Renew insurance", LocalDateTime.now().plusDays(3));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationService.createTaskDueNotificationsIfDueWithin(firstUserId, List.of(firstTaskId), 7);
+            notificationService.createTaskDueNotificationsIfDueWithin(secondUserId, List.of(secondTaskId), 7);
+            status.setRollbackOnly();
+        });
+
+        assertThat(data.countNotifications(firstUserId)).isZero();
+        assertThat(data.unreadStat(firstUserId)).isZero();
+        assertThat(data.countNotifications(secondUserId)).isZero();
+        assertThat(data.unreadStat(secondUserId)).isZero();
+    }
+
+    @Test
+    void sweepInsertsRollBack() {
+        Long userId = data.createUser();
+        Long firstTaskId = data.createTask(userId, "Pay rent", LocalDate.now().atTime(12, 0));
+        Long secondTaskId = data.createTask(userId, "Renew insurance", LocalDate.now().atTime(12, 0));
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        LocalDateTime endOfDay = startOfDay.plusDays(1).minusNanos(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationRepository.insertDueTodayNotifications(startOfDay, endOfDay, LocalDateTime.now(), firstTaskId, firstTaskId);
+            notificationRepository.insertDueTodayNotifications(startOfDay, endOfDay, LocalDateTime.now(), secondTaskId, secondTaskId);
+            status.setRollbackOnly();
+        });
+
+        assertThat(data.countNotifications(userId)).isZero();
+    }
+
+    @Test
+    void committedInsertsCountTowardsStatsAndSkipTasksAlreadyNotified() {
+        Long userId = data.createUser();
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(2);
+        Long taskId = data.createTask(userId, "Pay rent", dueDate);
+
+        transactionTemplate.executeWithoutResult(status ->
+                notificationService.createTaskDueNotificationsIfDueWithin(userId, List.of(taskId), 7));
+        transactionTemplate.executeWithoutResult(status ->
+                notificationService.createTaskDueNotificationsIfDueWithin(userId, List.of(taskId), 7));
+
+        assertThat(data.notificationMessages(userId)).containsExactly("Task 'Pay rent' is due soon (due date: " + dueDate.toLocalDate() + ")");
+        assertThat(data.unreadStat(userId)).isEqualTo(1);
+    }
+}
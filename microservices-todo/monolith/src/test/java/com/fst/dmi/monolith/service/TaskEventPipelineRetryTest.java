@@ -0,0 +1,93 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.Await;
+import com.fst.dmi.monolith.TestData;
+import com.fst.dmi.monolith.model.TaskEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A batch with one event that cannot be delivered: the other events still get through one by one,
+ * and the failing one is retried until it reaches max-attempts, with none of its side effects kept.
+ */
+@SpringBootTest(properties = {"tasks.events.max-attempts=2", "tasks.events.idle-scan-ms=100"})
+@ActiveProfiles("test")
+class TaskEventPipelineRetryTest {
+
+    @TestConfiguration
+    static class FailingListenerConfig {
+
+        @Bean
+        FailingListener failingListener() {
+            return new FailingListener();
+        }
+    }
+
+    static class FailingListener implements TaskEventListener {
+
+        final Set<Long> failingTaskIds = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onTaskEvents(List<TaskEvent> events) {
+            for (TaskEvent event : events) {
+                if (failingTaskIds.contains(event.getTaskId())) {
+                    throw new IllegalStateException("Cannot deliver task " + event.getTaskId());
+                }
+            }
+        }
+    }
+
+    @Autowired
+    private TaskEventPipeline taskEventPipeline;
+
+    @Autowired
+    private FailingListener failingListener;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+    }
+
+    @Test
+    void deliversTheRestOfAFailedBatchAndRetriesTheFailingEvent() {
+        Long userId = data.createUser();
+        Long goodTaskId = data.createTask(userId, "Pay rent", LocalDateTime.now().plusDays(2));
+        Long badTaskId = data.createTask(userId, "Renew insurance", LocalDateTime.now().plusDays(2));
+        failingListener.failingTaskIds.add(badTaskId);
+        long deadLettersBefore = taskEventPipeline.getDeadLetterCount();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            taskEventPipeline.publish(TaskEvent.Type.CREATED, goodTaskId, userId);
+            taskEventPipeline.publish(TaskEvent.Type.CREATED, badTaskId, userId);
+        });
+
+        Await.until("the failing event reaches max-attempts", () -> Integer.valueOf(2).equals(data.taskEventAttempts(badTaskId)));
+        assertThat(data.taskEventAttempts(goodTaskId)).isNull();
+        assertThat(data.countTaskNotifications(goodTaskId)).isEqualTo(1);
+        assertThat(data.countTaskNotifications(badTaskId)).isZero();
+        assertThat(data.unreadStat(userId)).isEqualTo(1);
+        assertThat(taskEventPipeline.getDeadLetterCount()).isEqualTo(deadLettersBefore + 1);
+    }
+}
@@ -0,0 +1,57 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.Await;
+import com.fst.dmi.monolith.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "tasks.import.batch-size=2")
+@ActiveProfiles("test")
+class TaskImportServiceTest {
+
+    @Autowired
+    private TaskImportService taskImportService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+    }
+
+    @Test
+    void importedTasksGetTheirDueSoonNotificationsOnceThroughTheEventPipeline() throws Exception {
+        Long userId = data.createUser();
+        LocalDateTime dueSoon = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MINUTES);
+        String csv = "title,dueDate\n" +
+                "Pay rent," + dueSoon + "\n" +
+                "Plan holidays," + dueSoon.plusMonths(3) + "\n" +
+                "Renew insurance," + dueSoon + "\n";
+
+        TaskImportResult result = taskImportService.importTasks(userId,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), TaskImportFormat.CSV);
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getBatches()).isEqualTo(2);
+        assertThat(data.openTasksStat(userId)).isEqualTo(3);
+        Await.until("the import's events are delivered", () -> data.countTaskEvents(userId) == 0);
+        assertThat(data.notificationMessages(userId)).containsExactlyInAnyOrder(
+                "Task 'Pay rent' is due soon (due date: " + dueSoon.toLocalDate() + ")",
+                "Task 'Renew insurance' is due soon (due date: " + dueSoon.toLocalDate() + ")");
+        assertThat(data.unreadStat(userId)).isEqualTo(2);
+    }
+}
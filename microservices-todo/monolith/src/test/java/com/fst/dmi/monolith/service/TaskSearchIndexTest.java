@@ -0,0 +1,86 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.Await;
+import com.fst.dmi.monolith.TestData;
+import com.fst.dmi.monolith.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imported tasks become searchable, whether the user's index partition was loaded before the import
+ * (kept current by the import's task events) or is loaded afterwards from the tasks table.
+ */
+@SpringBootTest(properties = {"tasks.search.preload=false", "tasks.import.batch-size=2"})
+@ActiveProfiles("test")
+class TaskSearchIndexTest {
+
+    private static final String CSV = "title\n" +
+            "Réviser le cours de réseaux\n" +
+            "Rendre le rapport de stage\n" +
+            "Acheter du pain\n";
+
+    @Autowired
+    private TaskImportService taskImportService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+    }
+
+    @Test
+    void importIntoALoadedPartitionIsIndexedFromTheTaskEvents() throws Exception {
+        Long userId = data.createUser();
+        assertThat(taskService.searchTasks(userId, "rapport", 0, 20).getTotal()).isZero();
+
+        importTasks(userId);
+
+        assertSearchFindsImportedTasks(userId);
+    }
+
+    @Test
+    void partitionLoadedAfterAnImportHoldsTheImportedTasks() throws Exception {
+        Long userId = data.createUser();
+
+        importTasks(userId);
+
+        assertSearchFindsImportedTasks(userId);
+    }
+
+    private void importTasks(Long userId) throws Exception {
+        TaskImportResult result = taskImportService.importTasks(userId,
+                new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)), TaskImportFormat.CSV);
+        assertThat(result.getImported()).isEqualTo(3);
+        Await.until("the import's events are delivered", () -> data.countTaskEvents(userId) == 0);
+    }
+
+    private void assertSearchFindsImportedTasks(Long userId) {
+        assertThat(titles(userId, "rapport")).containsExactly("Rendre le rapport de stage");
+        assertThat(titles(userId, "reviser")).containsExactly("Réviser le cours de réseaux");
+        assertThat(titles(userId, "pai")).containsExactly("Acheter du pain");
+        assertThat(titles(userId, "le")).containsExactlyInAnyOrder(
+                "Réviser le cours de réseaux", "Rendre le rapport de stage");
+        assertThat(taskService.searchTasks(userId, "vacances", 0, 20).getTotal()).isZero();
+    }
+
+    private List<String> titles(Long userId, String query) {
+        return taskService.searchTasks(userId, query, 0, 20).getTasks().stream().map(Task::getTitle).toList();
+    }
+}
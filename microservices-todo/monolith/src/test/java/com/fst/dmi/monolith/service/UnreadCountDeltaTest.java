@@ -0,0 +1,85 @@
+package com.fst.dmi.monolith.service;
+
+import com.fst.dmi.monolith.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The cached unread count follows committed changes only, whatever was read while they were open.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UnreadCountDeltaTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbc);
+    }
+
+    @Test
+    void rolledBackInsertLeavesTheCachedCountUnchanged() {
+        Long userId = data.createUser();
+        Long taskId = data.createTask(userId, "Pay rent", LocalDateTime.now().plusDays(2));
+        assertThat(notificationService.countUnreadNotifications(userId)).isZero();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationService.createTaskDueNotificationsIfDueWithin(userId, List.of(taskId), 7);
+            status.setRollbackOnly();
+        });
+
+        assertThat(notificationService.countUnreadNotifications(userId)).isZero();
+    }
+
+    @Test
+    void countReadInsideAnOpenChangeIsNotCached() {
+        Long userId = data.createUser();
+        Long taskId = data.createTask(userId, "Pay rent", LocalDateTime.now().plusDays(2));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationService.createTaskDueNotificationsIfDueWithin(userId, List.of(taskId), 7);
+            // Loaded from the uncommitted row; caching it would outlive the rollback
+            assertThat(notificationService.countUnreadNotifications(userId)).isEqualTo(1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(notificationService.countUnreadNotifications(userId)).isZero();
+    }
+
+    @Test
+    void committedChangesAreAppliedOnce() {
+        Long userId = data.createUser();
+        Long firstTaskId = data.createTask(userId, "Pay rent", LocalDateTime.now().plusDays(2));
+        Long secondTaskId = data.createTask(userId, "Renew insurance", LocalDateTime.now().plusDays(3));
+        assertThat(notificationService.countUnreadNotifications(userId)).isZero();
+
+        transactionTemplate.executeWithoutResult(status ->
+                notificationService.createTaskDueNotificationsIfDueWithin(userId, List.of(firstTaskId, secondTaskId), 7));
+        assertThat(notificationService.countUnreadNotifications(userId)).isEqualTo(2);
+
+        assertThat(notificationService.markAllAsRead(userId)).isEqualTo(2);
+        assertThat(notificationService.markAllAsRead(userId)).isZero();
+        assertThat(notificationService.countUnreadNotifications(userId)).isZero();
+        assertThat(data.unreadStat(userId)).isZero();
+    }
+}